@@ -0,0 +1,104 @@
+package puzzlesolver.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import puzzlesolver.MoveTable;
+import puzzlesolver.PuzzleState;
+import puzzlesolver.RubiksCube;
+
+/* The per-state operations every search engine spends its time in */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CubeBenchmark {
+    private RubiksCube cube;
+    private RubiksCube same;
+    private int move;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cube = Scrambles.generate(1, 20, 42).get(0);
+        same = cube.copy();
+        cube.distToSolved(); // loads the pattern databases outside the measurement
+    }
+
+    @Benchmark
+    public void rotateAndUndo() {
+        move = (move + 1) % MoveTable.NUM_QUARTER_TURNS;
+        cube.rotate(move);
+        cube.undoMove();
+    }
+
+    @Benchmark
+    public void adjacentStates(Blackhole bh) {
+        for (PuzzleState state: cube.adjacentStates()) {
+            bh.consume(state);
+        }
+    }
+
+    @Benchmark
+    public int distToSolved() {
+        return cube.distToSolved();
+    }
+
+    @Benchmark
+    public boolean equals() {
+        return cube.equals(same);
+    }
+
+    /* rotate and undoMove on their own. Each invocation is paired with the
+     * opposite operation outside the measurement, so the cube stays the same;
+     * the per-invocation fixtures add timer overhead to these two results. */
+    @State(Scope.Thread)
+    public static class SingleStep {
+        RubiksCube cube;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            cube = Scrambles.generate(1, 20, 42).get(0);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Rotated extends SingleStep {
+        @Setup(Level.Invocation)
+        public void rotate() {
+            cube.rotate(0);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Unrotated extends SingleStep {
+        @TearDown(Level.Invocation)
+        public void undo() {
+            cube.undoMove();
+        }
+    }
+
+    @Benchmark
+    public void rotate(Unrotated state) {
+        state.cube.rotate(0);
+    }
+
+    @Benchmark
+    public void undoMove(Rotated state) {
+        state.cube.undoMove();
+    }
+}
@@ -0,0 +1,109 @@
+package puzzlesolver.benchmarks;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import puzzlesolver.BucketQueue;
+
+/* The A* open list on its own: BucketQueue, holding indices into an array of
+ * nodes, against the PriorityQueue of nodes that AStarSearch used before. Each operation replays the same synthetic search,
+ * polling EXPANSIONS nodes and adding BRANCHING children for each, whose f is
+ * the parent's f or two more (as on the cube, where every move changes the
+ * heuristic by one) and whose g is one more than the parent's. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class OpenListBenchmark {
+    private static final int EXPANSIONS = 100_000;
+    private static final int BRANCHING = 9;
+    private static final int START_ESTIMATE = 12;
+
+    /* A fringe node, compared by f alone as AStarSearch's nodes were */
+    static final class Node implements Comparable<Node> {
+        final int f;
+        final int g;
+
+        Node(int f, int g) {
+            this.f = f;
+            this.g = g;
+        }
+
+        public int compareTo(Node other) {
+            return f - other.f;
+        }
+    }
+
+    private boolean[] raises; // raises[i] says whether the i-th child has a larger f than its parent
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(7);
+        raises = new boolean[EXPANSIONS * BRANCHING];
+        for (int i = 0; i < raises.length; i += 1) {
+            raises[i] = random.nextInt(3) != 0; // most moves take a state further from solved
+        }
+    }
+
+    /* Returns the f of the CHILD-th child, a child of NODE */
+    private int childEstimate(Node node, int child) {
+        boolean solved = node.f == node.g; // the heuristic cannot drop below 0
+        return raises[child] || solved ? node.f + 2 : node.f;
+    }
+
+    @Benchmark
+    public long bucketQueue() {
+        Node[] nodes = new Node[1 + EXPANSIONS * BRANCHING]; // the queue holds indices into NODES
+        BucketQueue fringe = new BucketQueue();
+        nodes[0] = new Node(START_ESTIMATE, 0);
+        fringe.add(0, START_ESTIMATE, 0);
+        int numNodes = 1;
+        long total = 0;
+        int child = 0;
+        for (int i = 0; i < EXPANSIONS; i += 1) {
+            Node node = nodes[fringe.poll()];
+            total += node.f;
+            for (int j = 0; j < BRANCHING; j += 1) {
+                int f = childEstimate(node, child);
+                nodes[numNodes] = new Node(f, node.g + 1);
+                fringe.add(numNodes, f, node.g + 1);
+                numNodes += 1;
+                child += 1;
+            }
+        }
+        return total + fringe.size();
+    }
+
+    @Benchmark
+    public long priorityQueue() {
+        PriorityQueue<Node> fringe = new PriorityQueue<>();
+        fringe.add(new Node(START_ESTIMATE, 0));
+        long total = 0;
+        int child = 0;
+        for (int i = 0; i < EXPANSIONS; i += 1) {
+            Node node = fringe.poll();
+            total += node.f;
+            for (int j = 0; j < BRANCHING; j += 1) {
+                int f = childEstimate(node, child);
+                fringe.add(new Node(f, node.g + 1));
+                child += 1;
+            }
+        }
+        return total + fringe.size();
+    }
+}
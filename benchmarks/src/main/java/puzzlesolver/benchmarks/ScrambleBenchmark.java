@@ -0,0 +1,57 @@
+package puzzlesolver.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import puzzlesolver.CubieCube;
+import puzzlesolver.Metric;
+import puzzlesolver.RubiksCube;
+import puzzlesolver.ScrambleGenerator;
+
+/* Scrambles per second from one ScrambleGenerator shared by every benchmark thread;
+ * run with -t to check that throughput grows with the number of threads */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class ScrambleBenchmark {
+    private final ScrambleGenerator generator = new ScrambleGenerator(42);
+
+    @State(Scope.Thread)
+    public static class Buffers {
+        final int[] moves = new int[20];
+        final CubieCube cubies = new CubieCube();
+        final RubiksCube cube = new RubiksCube();
+    }
+
+    @Benchmark
+    public int[] randomMoves(Buffers buffers) {
+        generator.randomMoves(Metric.QUARTER_TURN, buffers.moves, buffers.moves.length);
+        return buffers.moves;
+    }
+
+    @Benchmark
+    public CubieCube randomStateCubies(Buffers buffers) {
+        generator.randomState(buffers.cubies);
+        return buffers.cubies;
+    }
+
+    @Benchmark
+    public RubiksCube randomStateCube(Buffers buffers) {
+        generator.randomState(buffers.cube);
+        return buffers.cube;
+    }
+}
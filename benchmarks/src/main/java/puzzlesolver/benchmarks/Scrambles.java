@@ -0,0 +1,35 @@
+package puzzlesolver.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import puzzlesolver.MoveTable;
+import puzzlesolver.RubiksCube;
+
+/* Fixed-seed scramble sets, so every run and every engine sees the same cubes */
+final class Scrambles {
+    private Scrambles() {
+    }
+
+    /* Returns COUNT cubes, each scrambled with DEPTH random quarter turns from SEED.
+     * A move never turns the same face as the move before it. */
+    static List<RubiksCube> generate(int count, int depth, long seed) {
+        Random random = new Random(seed);
+        List<RubiksCube> cubes = new ArrayList<>();
+        for (int i = 0; i < count; i += 1) {
+            RubiksCube cube = new RubiksCube();
+            int prev = -1;
+            for (int j = 0; j < depth; j += 1) {
+                int move;
+                do {
+                    move = random.nextInt(MoveTable.NUM_QUARTER_TURNS);
+                } while (prev != -1 && MoveTable.faceOf(move) == MoveTable.faceOf(prev));
+                cube.rotate(move);
+                prev = move;
+            }
+            cubes.add(cube);
+        }
+        return cubes;
+    }
+}
@@ -0,0 +1,88 @@
+package puzzlesolver.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import puzzlesolver.AStarSearch;
+import puzzlesolver.IDAStarSearch;
+import puzzlesolver.Metric;
+import puzzlesolver.ParallelIDAStarSearch;
+import puzzlesolver.PuzzleState;
+import puzzlesolver.RubiksCube;
+import puzzlesolver.SearchEngine;
+import puzzlesolver.TwoPhaseSearch;
+
+/* End-to-end solves of a fixed scramble set. Each operation solves every cube in
+ * the set once, so scores are comparable across engines at the same depth.
+ * A* runs out of memory on the deeper sets; select it with -p engine=astar.
+ * Scramble depths are in quarter turns; -p metric=HALF_TURN searches in the half-turn metric. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class SolverBenchmark {
+    private static final int SET_SIZE = 10;
+    private static final long SEED = 2024;
+
+    @Param({"4", "8", "12", "16"})
+    public int depth;
+
+    @Param({"ida", "twophase"})
+    public String engine;
+
+    @Param({"QUARTER_TURN"})
+    public Metric metric;
+
+    private List<RubiksCube> cubes;
+    private SearchEngine searchEngine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cubes = Scrambles.generate(SET_SIZE, depth, SEED + depth);
+        for (RubiksCube cube: cubes) {
+            cube.setMetric(metric);
+        }
+        cubes.get(0).distToSolved(); // loads the pattern databases outside the measurement
+        searchEngine = createEngine(engine);
+    }
+
+    @Benchmark
+    public long solveSet() {
+        long totalMoves = 0;
+        for (RubiksCube cube: cubes) {
+            List<PuzzleState> solution = searchEngine.solve(cube);
+            totalMoves += solution.size() - 1;
+        }
+        return totalMoves;
+    }
+
+    static SearchEngine createEngine(String name) {
+        switch (name) {
+            case "astar":
+                return new AStarSearch();
+            case "ida":
+                return new IDAStarSearch();
+            case "parallel":
+                return new ParallelIDAStarSearch();
+            case "twophase":
+                return new TwoPhaseSearch();
+            default:
+                throw new IllegalArgumentException("Unknown engine: " + name);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package puzzlesolver;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/* Solves a PuzzleState with the A* search algorithm. The fringe is a BucketQueue
+ * of node indices, which expands the deepest of the states with the lowest estimate
+ * first. States that can be packed (see MutablePuzzleState.pack) are stored in a
+ * NodeArena and the solution is rebuilt by replaying moves from the start, so a
+ * node takes a few dozen bytes instead of a PSNode and a copy of the state.
+ * Given an OffHeapSearchMemory, the nodes and the closed set of packable states are
+ * kept outside the heap instead, and a search that outgrows the memory's budget
+ * throws a MemoryBudgetExceededException.
+ * With a weight above 1 (see setWeight) the search is weighted A*, which trades
+ * solution length for speed; in anytime mode (see setAnytime) it keeps searching
+ * after the first solution for shorter ones until it has the shortest or its
+ * SearchBudget runs out, and then returns the shortest found */
+public class AStarSearch implements SearchEngine {
+    /* Necessary to keep track of distance from start for A*
+    *  and to prevent infinite adding of elements to priority queue */
+    private class PSNode {
+        PuzzleState ps;
+        int distFromStart;
+        int distToSolved;
+        PSNode prev;
+
+        PSNode(PuzzleState pstate, int distFromStart, PSNode prev) {
+            ps = pstate;
+            this.distFromStart = distFromStart;
+            this.distToSolved = heuristic.distToSolved(ps);
+            this.prev = prev;
+        }
+
+        /* The priority of a PSNode in the fringe */
+        int estimate() {
+            return distFromStart + weighted(distToSolved);
+        }
+    }
+
+    private static final int BUDGET_CHECK_INTERVAL = 256;
+
+    private final TranspositionTable visited;
+    private final OffHeapSearchMemory memory; // null to keep everything on the heap
+    private SearchListener listener = SearchListener.NONE;
+    private SearchStats stats = new SearchStats();
+    private final HeuristicTimer heuristic = new HeuristicTimer();
+    private double weight = 1;
+    private boolean anytime;
+    private SearchBudget budget = SearchBudget.UNLIMITED;
+
+    /* The shortest solution found by the current solve, and its number of moves */
+    private List<PuzzleState> best;
+    private int bestLength;
+
+    /* Uses a TranspositionTable with the default capacity to detect duplicate states */
+    public AStarSearch() {
+        this(new TranspositionTable());
+    }
+
+    /* Uses VISITED to detect duplicate states */
+    public AStarSearch(TranspositionTable visited) {
+        this.visited = visited;
+        this.memory = null;
+    }
+
+    /* Keeps the nodes and the closed set in MEMORY, which only packable states
+     * (see MutablePuzzleState.packedLength) can be searched with */
+    public AStarSearch(OffHeapSearchMemory memory) {
+        this.visited = null;
+        this.memory = memory;
+    }
+
+    public List<PuzzleState> solve(PuzzleState initialState) {
+        stats = new SearchStats();
+        heuristic.takeNanos();
+        best = null;
+        bestLength = Integer.MAX_VALUE;
+        try {
+            return search(initialState);
+        } catch (SearchBudgetExceededException e) {
+            if (best == null) {
+                throw e;
+            }
+            stats.budgetExhausted = true;
+            return best;
+        } finally {
+            best = null;
+            stats.heuristicNanos += heuristic.takeNanos();
+            stats.updateElapsed();
+            listener.searchFinished(stats);
+        }
+    }
+
+    public SearchStats stats() {
+        return stats;
+    }
+
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    /* Multiplies the heuristic by WEIGHT, at least 1, when ordering the fringe. Solutions
+     * are found faster but may be up to WEIGHT times as long as the shortest */
+    public void setWeight(double weight) {
+        if (!(weight >= 1)) {
+            throw new IllegalArgumentException("Weight must be at least 1: " + weight);
+        }
+        this.weight = weight;
+    }
+
+    /* In anytime mode a solve goes on after each solution, looking only for shorter
+     * ones, and returns the shortest once the fringe is empty or the budget runs out.
+     * Every solution found is reported to SearchListener.solutionFound. Without a
+     * weight above 1 the first solution is the shortest, so the solve ends there */
+    public void setAnytime(boolean anytime) {
+        this.anytime = anytime;
+    }
+
+    /* Limits the time and the states of later solves. A solve that runs out throws a
+     * SearchBudgetExceededException, or in anytime mode returns the shortest solution
+     * found so far if there is one */
+    public void setBudget(SearchBudget budget) {
+        this.budget = budget;
+    }
+
+    /* Keeps nodes in a NodeStore when INITIALSTATE can be packed, otherwise in PSNodes */
+    private List<PuzzleState> search(PuzzleState initialState) {
+        boolean packable = initialState instanceof MutablePuzzleState
+                && ((MutablePuzzleState) initialState).packedLength() > 0;
+        if (memory != null) {
+            if (!packable) {
+                throw new IllegalArgumentException("Only states that can be packed are searched off the heap");
+            }
+            memory.startSearch();
+            MutablePuzzleState state = (MutablePuzzleState) initialState;
+            return searchArena(state, memory.newNodeStore(state.packedLength()), memory.newClosedSet());
+        }
+        visited.clear();
+        if (packable) {
+            MutablePuzzleState state = (MutablePuzzleState) initialState;
+            return searchArena(state, new NodeArena(state.packedLength()), visited);
+        }
+        visited.visit(initialState.hash64(), 0);
+        return searchNodes(initialState);
+    }
+
+    /* Expands nodes by unpacking them from ARENA into a single MutablePuzzleState */
+    private List<PuzzleState> searchArena(MutablePuzzleState initialState, NodeStore arena, ClosedSet visited) {
+        MutablePuzzleState state = initialState.copy();
+        BucketQueue fringe = new BucketQueue();
+        visited.visit(state.hash64(), 0);
+        int startNode = arena.add(state, 0, NodeStore.NO_PARENT, 0);
+        fringe.add(startNode, heuristic.distToSolved(state), 0);
+
+        while (true) {
+            if (fringe.isEmpty()) {
+                return finish();
+            }
+            int bestNode = fringe.poll();
+            arena.load(bestNode, state);
+            if (state.isSolved()) {
+                int[] moves = arena.pathTo(bestNode);
+                if (offerSolution(StateWalker.replay(initialState, moves, moves.length))) {
+                    return best;
+                }
+                continue;
+            }
+            int distFromStart = arena.distFromStart(bestNode) + 1;
+            if (best != null && distFromStart - 1 + heuristic.distToSolved(state) >= bestLength) {
+                continue; // added before a solution at most as long was found
+            }
+            countExpansion();
+            int numMoves = state.numMoves();
+            for (int move = 0; move < numMoves; move += 1) {
+                state.applyMove(move);
+                stats.nodesGenerated += 1;
+                if (visited.visit(state.hash64(), distFromStart)) { // skips duplicates
+                    int distToSolved = heuristic.distToSolved(state);
+                    if (distFromStart + distToSolved < bestLength) {
+                        int node = arena.add(state, distFromStart, bestNode, move);
+                        fringe.add(node, distFromStart + weighted(distToSolved), distFromStart);
+                    } else {
+                        stats.prunedByBound += 1; // cannot lead to a shorter solution
+                    }
+                } else {
+                    stats.duplicateHits += 1;
+                }
+                state.undoMove();
+            }
+            stats.offerFringeSize(fringe.size());
+        }
+    }
+
+    /* Expands nodes through adjacentStates, keeping a PSNode per state */
+    private List<PuzzleState> searchNodes(PuzzleState initialState) {
+        List<PSNode> nodes = new ArrayList<>();
+        BucketQueue fringe = new BucketQueue();
+        PSNode startNode = new PSNode(initialState, 0, null);
+        nodes.add(startNode);
+        fringe.add(0, startNode.estimate(), 0);
+
+        while (true) {
+            if (fringe.isEmpty()) {
+                return finish();
+            }
+            PSNode bestNode = nodes.get(fringe.poll());
+            if (bestNode.ps.isSolved()) {
+                LinkedList<PuzzleState> solution = new LinkedList<>();
+                for (PSNode node = bestNode; node != null; node = node.prev) {
+                    solution.addFirst(node.ps);
+                }
+                if (offerSolution(solution)) {
+                    return best;
+                }
+                continue;
+            }
+            if (bestNode.distFromStart + bestNode.distToSolved >= bestLength) {
+                continue; // added before a solution at most as long was found
+            }
+            countExpansion();
+            for (PuzzleState adjState: bestNode.ps.adjacentStates()) {
+                stats.nodesGenerated += 1;
+                if (visited.visit(adjState.hash64(), bestNode.distFromStart + 1)) { // skips duplicates
+                    PSNode node = new PSNode(adjState, bestNode.distFromStart + 1, bestNode);
+                    if (node.distFromStart + node.distToSolved >= bestLength) {
+                        stats.prunedByBound += 1; // cannot lead to a shorter solution
+                        continue;
+                    }
+                    nodes.add(node);
+                    fringe.add(nodes.size() - 1, node.estimate(), node.distFromStart);
+                } else {
+                    stats.duplicateHits += 1;
+                }
+            }
+            stats.offerFringeSize(fringe.size());
+        }
+    }
+
+    /* Returns DISTTOSOLVED multiplied by the weight */
+    private int weighted(int distToSolved) {
+        return weight == 1 ? distToSolved : (int) (weight * distToSolved);
+    }
+
+    /* Records SOLUTION if it is shorter than the best so far. Returns whether
+     * the search should stop and return the best solution */
+    private boolean offerSolution(List<PuzzleState> solution) {
+        int length = solution.size() - 1;
+        if (length < bestLength) {
+            best = solution;
+            bestLength = length;
+            stats.solutionsFound += 1;
+            stats.updateElapsed();
+            listener.solutionFound(length, stats);
+        }
+        return !anytime || weight == 1;
+    }
+
+    /* Returns the best solution once the fringe is empty, which is the shortest */
+    private List<PuzzleState> finish() {
+        if (best == null) {
+            throw new IllegalStateException("No solution exists");
+        }
+        return best;
+    }
+
+    /* Counts an expansion, reporting progress every SearchListener.PROGRESS_INTERVAL
+     * and checking the budget every BUDGET_CHECK_INTERVAL */
+    private void countExpansion() {
+        stats.nodesExpanded += 1;
+        if (stats.nodesExpanded % BUDGET_CHECK_INTERVAL == 0) {
+            budget.check(stats.startNanos(), stats.nodesGenerated - stats.duplicateHits - stats.prunedByBound);
+        }
+        if (stats.nodesExpanded % SearchListener.PROGRESS_INTERVAL == 0) {
+            stats.heuristicNanos += heuristic.takeNanos();
+            stats.updateElapsed();
+            listener.progress(stats);
+        }
+    }
+}
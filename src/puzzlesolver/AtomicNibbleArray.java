@@ -0,0 +1,62 @@
+package puzzlesolver;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/* A fixed-size array of 4-bit values that several threads can update at once.
+ * Entries are packed eight to an int, in the same order as a NibbleArray, and
+ * written with compare-and-set on the int holding them, so a write never loses
+ * a concurrent write to a neighbouring entry */
+public class AtomicNibbleArray {
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final int[] data;
+    private final int size;
+
+    /* Creates an array of SIZE entries, each set to FILL */
+    public AtomicNibbleArray(int size, int fill) {
+        this.size = size;
+        data = new int[(size + 7) / 8];
+        int word = fill * 0x11111111;
+        for (int i = 0; i < data.length; i += 1) {
+            data[i] = word;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int get(int index) {
+        return ((int) INTS.getVolatile(data, index >> 3) >>> ((index & 7) << 2)) & 0xF;
+    }
+
+    /* Sets the entry at INDEX to UPDATE if it is EXPECT. Returns whether it did */
+    public boolean compareAndSet(int index, int expect, int update) {
+        int shift = (index & 7) << 2;
+        int i = index >> 3;
+        while (true) {
+            int word = (int) INTS.getVolatile(data, i);
+            if (((word >>> shift) & 0xF) != expect) {
+                return false;
+            }
+            int updated = (word & ~(0xF << shift)) | (update << shift);
+            if (INTS.compareAndSet(data, i, word, updated)) {
+                return true;
+            }
+        }
+    }
+
+    /* Returns a copy of the entries as a NibbleArray. Only call it once no thread is writing */
+    public NibbleArray toNibbleArray() {
+        ByteBuffer bytes = ByteBuffer.allocate(NibbleArray.numBytes(size)).order(ByteOrder.LITTLE_ENDIAN);
+        int numWholeInts = bytes.capacity() / 4;
+        bytes.asIntBuffer().put(data, 0, numWholeInts);
+        for (int b = 4 * numWholeInts; b < bytes.capacity(); b += 1) { // the last, partly used int
+            bytes.put(b, (byte) (data[numWholeInts] >>> (8 * (b & 3))));
+        }
+        return new NibbleArray(bytes, size);
+    }
+}
@@ -0,0 +1,192 @@
+package puzzlesolver;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/* Solves many PuzzleStates concurrently on a fixed number of worker threads.
+ * Each worker creates one SearchEngine and reuses it (with its tables and
+ * buffers) for every state it solves; the pattern databases behind
+ * RubiksCube.distToSolved are shared read-only by all workers.
+ * Results are returned in the order they complete, tagged with the index of
+ * their input. At most QUEUECAPACITY finished results wait for the caller,
+ * so a slow consumer stops the workers instead of filling the heap.
+ * If reading the input or creating an engine fails, the workers stop and the
+ * results iterator throws once the results solved before the failure are taken. */
+public class BatchSolver implements AutoCloseable {
+    /* The outcome of solving one input state */
+    public static class Result {
+        public final long index; // position of the state in the input
+        public final List<PuzzleState> solution; // null if the engine failed
+        public final int numMoves;
+        public final long numExpanded;
+        public final long elapsedNanos;
+        public final SearchStats stats; // of the engine's search, null only for WORKER_DONE
+        public final RuntimeException error; // null if the engine succeeded
+
+        Result(long index, List<PuzzleState> solution, SearchStats stats, long elapsedNanos, RuntimeException error) {
+            this.index = index;
+            this.solution = solution;
+            this.numMoves = solution == null ? -1 : solution.size() - 1;
+            this.numExpanded = stats == null ? 0 : stats.nodesExpanded();
+            this.elapsedNanos = elapsedNanos;
+            this.stats = stats;
+            this.error = error;
+        }
+    }
+
+    private static final Result WORKER_DONE = new Result(-1, null, null, 0, null);
+
+    private final Supplier<SearchEngine> engineFactory;
+    private final int numWorkers;
+    private final int queueCapacity;
+    private final ExecutorService workers;
+
+    /* Solves with NUMWORKERS threads, each using an engine made by ENGINEFACTORY */
+    public BatchSolver(Supplier<SearchEngine> engineFactory, int numWorkers, int queueCapacity) {
+        this.engineFactory = engineFactory;
+        this.numWorkers = numWorkers;
+        this.queueCapacity = queueCapacity;
+        workers = Executors.newFixedThreadPool(numWorkers);
+    }
+
+    /* Solves every state in STATES, see solve(Iterator) */
+    public Iterator<Result> solve(Stream<? extends PuzzleState> states) {
+        return solve(states.iterator());
+    }
+
+    /* Starts solving every state from STATES, which is read by the workers as they
+     * become free, and returns the results as they complete. Only one batch
+     * should be in progress at a time. */
+    public Iterator<Result> solve(Iterator<? extends PuzzleState> states) {
+        BlockingQueue<Result> results = new ArrayBlockingQueue<>(queueCapacity + numWorkers);
+        Input input = new Input(states);
+        for (int i = 0; i < numWorkers; i += 1) {
+            workers.execute(() -> work(input, results));
+        }
+        return new ResultIterator(input, results);
+    }
+
+    /* Stops the worker threads once the current batch is done */
+    public void close() {
+        workers.shutdown();
+    }
+
+    /* Solves states from INPUT until it runs out or fails. Always ends with WORKER_DONE */
+    private void work(Input input, BlockingQueue<Result> results) {
+        try {
+            SearchEngine engine = engineFactory.get();
+            while (true) {
+                PuzzleState state;
+                long index;
+                synchronized (input) {
+                    if (input.failure != null || !input.states.hasNext()) {
+                        break;
+                    }
+                    state = input.states.next();
+                    index = input.nextIndex;
+                    input.nextIndex += 1;
+                }
+                results.put(solveOne(engine, state, index));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException | Error e) { // from the input or the engine factory, not from a solve
+            synchronized (input) {
+                if (input.failure == null) {
+                    input.failure = e;
+                }
+            }
+        } finally {
+            putDone(results);
+        }
+    }
+
+    /* Puts WORKER_DONE on RESULTS even if this thread is interrupted, so the consumer never waits forever */
+    private static void putDone(BlockingQueue<Result> results) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                results.put(WORKER_DONE);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Result solveOne(SearchEngine engine, PuzzleState state, long index) {
+        long start = System.nanoTime();
+        try {
+            List<PuzzleState> solution = engine.solve(state);
+            return new Result(index, solution, engine.stats(), System.nanoTime() - start, null);
+        } catch (RuntimeException e) {
+            return new Result(index, null, engine.stats(), System.nanoTime() - start, e);
+        }
+    }
+
+    /* The input of a batch, read by one worker at a time */
+    private static class Input {
+        final Iterator<? extends PuzzleState> states;
+        long nextIndex;
+        volatile Throwable failure; // the first exception from STATES or the engine factory
+
+        Input(Iterator<? extends PuzzleState> states) {
+            this.states = states;
+        }
+    }
+
+    /* Takes results off the queue until every worker has finished */
+    private class ResultIterator implements Iterator<Result> {
+        private final Input input;
+        private final BlockingQueue<Result> results;
+        private int numDone;
+        private Result next;
+
+        ResultIterator(Input input, BlockingQueue<Result> results) {
+            this.input = input;
+            this.results = results;
+        }
+
+        public boolean hasNext() {
+            while (next == null && numDone < numWorkers) {
+                try {
+                    Result result = results.take();
+                    if (result == WORKER_DONE) {
+                        numDone += 1;
+                    } else {
+                        next = result;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            if (next == null && input.failure != null) {
+                if (input.failure instanceof Error) {
+                    throw (Error) input.failure;
+                }
+                throw new IllegalStateException("The batch input or engine factory failed", input.failure);
+            }
+            return next != null;
+        }
+
+        public Result next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Result result = next;
+            next = null;
+            return result;
+        }
+    }
+}
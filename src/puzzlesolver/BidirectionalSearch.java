@@ -0,0 +1,178 @@
+package puzzlesolver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/* Solves a packable MutablePuzzleState (see MutablePuzzleState.pack) with a breadth-first
+ * search from the initial state and another from the solved state at the same time,
+ * each expanding a whole level at once, the smaller frontier first. Every state
+ * either side generates is looked up by its packed state in the other side's
+ * PackedStateIndex; the first state found in both joins the path from the initial
+ * state with the reverse of the path from the solved state.
+ * A solution of d moves costs about 2 * b^(d/2) states instead of the b^d of a
+ * search from one side, and needs no heuristic. Solutions are the shortest
+ * because the moves of the puzzle must be undoable by other moves, so the path
+ * from the solved state can be walked backwards. */
+public class BidirectionalSearch implements SearchEngine {
+    private static final int BUDGET_CHECK_INTERVAL = 256;
+
+    private final MutablePuzzleState solvedState; // null to use a solved RubiksCube
+    private SearchListener listener = SearchListener.NONE;
+    private SearchStats stats = new SearchStats();
+    private SearchBudget budget = SearchBudget.UNLIMITED;
+
+    /* Solves RubiksCubes, meeting a solved cube in the metric of the initial cube */
+    public BidirectionalSearch() {
+        this(null);
+    }
+
+    /* Solves states of the puzzle SOLVEDSTATE belongs to, meeting SOLVEDSTATE */
+    public BidirectionalSearch(MutablePuzzleState solvedState) {
+        this.solvedState = solvedState;
+    }
+
+    public List<PuzzleState> solve(PuzzleState initialState) {
+        stats = new SearchStats();
+        try {
+            return search(initialState);
+        } finally {
+            stats.updateElapsed();
+            listener.searchFinished(stats);
+        }
+    }
+
+    public SearchStats stats() {
+        return stats;
+    }
+
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    /* Limits the time and the states of later solves, which throw a
+     * SearchBudgetExceededException when they run out */
+    public void setBudget(SearchBudget budget) {
+        this.budget = budget;
+    }
+
+    /* Grows the side with the smaller frontier by a level until the sides meet */
+    private List<PuzzleState> search(PuzzleState initialState) {
+        if (!(initialState instanceof MutablePuzzleState)
+                || ((MutablePuzzleState) initialState).packedLength() == 0) {
+            throw new IllegalArgumentException("Bidirectional search needs states that can be packed");
+        }
+        MutablePuzzleState start = (MutablePuzzleState) initialState;
+        if (start.isSolved()) {
+            return Collections.singletonList(initialState);
+        }
+        Side forward = new Side(start);
+        Side backward = new Side(goalFor(start));
+        while (true) {
+            long iterationStart = System.nanoTime();
+            long generatedBefore = stats.nodesGenerated;
+            long expandedBefore = stats.nodesExpanded;
+            boolean forwardFirst = forward.frontierSize() <= backward.frontierSize();
+            Side growing = forwardFirst ? forward : backward;
+            Side other = forwardFirst ? backward : forward;
+            int[] meeting = growing.expandLevel(other);
+            listener.iterationFinished(stats.addIteration(forward.depth + backward.depth,
+                    stats.nodesGenerated - generatedBefore, stats.nodesExpanded - expandedBefore, iterationStart));
+            if (meeting != null) {
+                return forwardFirst ? join(forward, meeting[0], backward, meeting[1])
+                        : join(forward, meeting[1], backward, meeting[0]);
+            }
+            if (growing.frontierSize() == 0) {
+                throw new IllegalStateException("No solution exists");
+            }
+        }
+    }
+
+    /* Returns a solved state of the puzzle START belongs to */
+    private MutablePuzzleState goalFor(MutablePuzzleState start) {
+        if (solvedState != null) {
+            return solvedState.copy();
+        }
+        if (start instanceof RubiksCube) {
+            return new RubiksCube(((RubiksCube) start).metric());
+        }
+        throw new IllegalArgumentException("No solved state given for " + start.getClass().getSimpleName());
+    }
+
+    /* Returns the states from the start of FORWARD to its node FORWARDNODE, followed by
+     * the states from BACKWARDNODE, which holds the same state, back to the solved state */
+    private List<PuzzleState> join(Side forward, int forwardNode, Side backward, int backwardNode) {
+        int[] forwardMoves = forward.arena.pathTo(forwardNode);
+        int[] backwardMoves = backward.arena.pathTo(backwardNode);
+        List<PuzzleState> solution = new ArrayList<>(StateWalker.replay(forward.root, forwardMoves, forwardMoves.length));
+        List<PuzzleState> fromGoal = StateWalker.replay(backward.root, backwardMoves, backwardMoves.length);
+        for (int i = fromGoal.size() - 2; i >= 0; i -= 1) { // the last state of FROMGOAL ends SOLUTION already
+            solution.add(fromGoal.get(i));
+        }
+        return solution;
+    }
+
+    /* The states one of the searches has reached, in the order it reached them,
+     * so the frontier is the nodes from levelStart on */
+    private class Side {
+        private final MutablePuzzleState root;
+        private final MutablePuzzleState state; // scratch for expanding nodes
+        private final NodeArena arena;
+        private final PackedStateIndex index;
+        private final long[] packed;
+        private int levelStart;
+        private int depth; // of the frontier
+
+        Side(MutablePuzzleState root) {
+            this.root = root;
+            state = root.copy();
+            arena = new NodeArena(root.packedLength());
+            index = new PackedStateIndex(arena);
+            packed = new long[root.packedLength()];
+            state.pack(packed, 0);
+            index.add(arena.addPacked(packed, 0, NodeStore.NO_PARENT, 0),
+                    NodeArena.hashPacked(packed, 0, packed.length));
+        }
+
+        int frontierSize() {
+            return arena.size() - levelStart;
+        }
+
+        /* Expands every node of the frontier, making their children the new frontier.
+         * Returns the node of this side and the node of OTHER that hold the first state
+         * found on both sides, or null if there is none */
+        int[] expandLevel(Side other) {
+            int levelEnd = arena.size();
+            for (int node = levelStart; node < levelEnd; node += 1) {
+                arena.load(node, state);
+                stats.nodesExpanded += 1;
+                if (stats.nodesExpanded % BUDGET_CHECK_INTERVAL == 0) {
+                    budget.check(stats.startNanos(), arena.size() + other.arena.size());
+                }
+                int numMoves = state.numMoves();
+                for (int move = 0; move < numMoves; move += 1) {
+                    state.applyMove(move);
+                    state.pack(packed, 0);
+                    state.undoMove();
+                    stats.nodesGenerated += 1;
+                    long hash = NodeArena.hashPacked(packed, 0, packed.length);
+                    if (index.find(packed, hash) != NodeStore.NO_PARENT) {
+                        stats.duplicateHits += 1;
+                        continue;
+                    }
+                    int child = arena.addPacked(packed, depth + 1, node, move);
+                    index.add(child, hash);
+                    int otherNode = other.index.find(packed, hash);
+                    if (otherNode != NodeStore.NO_PARENT) {
+                        depth += 1;
+                        return new int[] {child, otherNode};
+                    }
+                }
+            }
+            levelStart = levelEnd;
+            depth += 1;
+            stats.offerFringeSize(frontierSize() + other.frontierSize());
+            return null;
+        }
+    }
+}
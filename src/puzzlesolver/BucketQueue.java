@@ -0,0 +1,99 @@
+package puzzlesolver;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/* A priority queue of ints, such as indices of search nodes, for small non-negative
+ * integer priorities, such as the f = g + h values of A*. Elements are kept in one
+ * stack per (f, g) pair, so adding and removing take constant time apart from
+ * skipping empty buckets. poll returns an element with the smallest f; among those,
+ * one with the largest g (the deepest, usually closest to a solution); among those,
+ * the one added last. */
+public class BucketQueue {
+    private static final int INITIAL_STACK_CAPACITY = 16;
+
+    /* stacks[f][g] holds the elements added with that f and g, the last one added
+     * at stackSizes[f][g] - 1. Rows are created as larger f values show up */
+    private int[][][] stacks = new int[0][][];
+    private int[][] stackSizes = new int[0][];
+    private int[] bucketSizes = new int[0]; // bucketSizes[f] is the number of elements with that f
+    private int size;
+    private int minF; // no element has a smaller f
+
+    /* Adds ELEMENT with priority F, of which G is the distance from the start.
+     * Requires 0 <= G <= F */
+    public void add(int element, int f, int g) {
+        if (g < 0 || g > f) {
+            throw new IllegalArgumentException("Need 0 <= g <= f, got g = " + g + ", f = " + f);
+        }
+        if (f >= stacks.length) {
+            grow(f);
+        }
+        int[] stack = stacks[f][g];
+        int stackSize = stackSizes[f][g];
+        if (stack == null) {
+            stack = new int[INITIAL_STACK_CAPACITY];
+            stacks[f][g] = stack;
+        } else if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, 2 * stack.length);
+            stacks[f][g] = stack;
+        }
+        stack[stackSize] = element;
+        stackSizes[f][g] = stackSize + 1;
+        bucketSizes[f] += 1;
+        if (size == 0 || f < minF) {
+            minF = f;
+        }
+        size += 1;
+    }
+
+    /* Removes and returns the element to expand next (see the class comment).
+     * Throws NoSuchElementException if the queue is empty */
+    public int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        while (bucketSizes[minF] == 0) {
+            minF += 1;
+        }
+        int[] sizes = stackSizes[minF];
+        int g = sizes.length - 1;
+        while (sizes[g] == 0) {
+            g -= 1;
+        }
+        sizes[g] -= 1;
+        bucketSizes[minF] -= 1;
+        size -= 1;
+        return stacks[minF][g][sizes[g]];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /* Removes every element, keeping the buckets for reuse */
+    public void clear() {
+        for (int f = 0; f < stacks.length; f += 1) {
+            Arrays.fill(stackSizes[f], 0);
+        }
+        Arrays.fill(bucketSizes, 0);
+        size = 0;
+    }
+
+    /* Makes room for elements with priorities up to F */
+    private void grow(int f) {
+        int oldLength = stacks.length;
+        int newLength = Math.max(f + 1, 2 * oldLength);
+        stacks = Arrays.copyOf(stacks, newLength);
+        stackSizes = Arrays.copyOf(stackSizes, newLength);
+        bucketSizes = Arrays.copyOf(bucketSizes, newLength);
+        for (int i = oldLength; i < newLength; i += 1) {
+            stacks[i] = new int[i + 1][]; // g ranges from 0 to f
+            stackSizes[i] = new int[i + 1];
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package puzzlesolver;
+
+/* The states a search has already reached, by hash64, with the shortest distance
+ * from the start each was reached at */
+interface ClosedSet {
+    /* Records that the state with HASH was reached DISTFROMSTART moves from the start.
+     * Returns false if it had already been reached in at most that many moves. */
+    boolean visit(long hash, int distFromStart);
+}
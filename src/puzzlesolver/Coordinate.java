@@ -0,0 +1,14 @@
+package puzzlesolver;
+
+/* Numbers a subset of the pieces of a CubieCube from 0 to size() - 1,
+ * so that the states of those pieces can index a PatternDatabase */
+public interface Coordinate {
+    /* Returns the number of distinct values of the coordinate */
+    int size();
+
+    /* Returns the coordinate of CUBE */
+    int encode(CubieCube cube);
+
+    /* Fills OUT with the coordinates reached from INDEX by the moves 0 to NUMMOVES - 1 */
+    void successors(int index, int numMoves, int[] out);
+}
@@ -0,0 +1,49 @@
+package puzzlesolver;
+
+/* The permutation and twist of all 8 corners */
+public class CornerCoordinate implements Coordinate {
+    private static final int NUM_PERMUTATIONS = 40320; // 8!
+    private static final int NUM_ORIENTATIONS = 2187; // 3^7
+
+    /* PERMUTATION_MOVES[NUM_MOVES * p + m] is the permutation reached from p by move m */
+    private final int[] permutationMoves;
+    private final int[] orientationMoves;
+
+    public CornerCoordinate() {
+        int numMoves = MoveTable.NUM_MOVES;
+        permutationMoves = new int[NUM_PERMUTATIONS * numMoves];
+        orientationMoves = new int[NUM_ORIENTATIONS * numMoves];
+        CubieCube cube = new CubieCube();
+        for (int p = 0; p < NUM_PERMUTATIONS; p += 1) {
+            for (int m = 0; m < numMoves; m += 1) {
+                cube.setCornerPermutation(p);
+                cube.move(m);
+                permutationMoves[numMoves * p + m] = cube.cornerPermutation();
+            }
+        }
+        for (int o = 0; o < NUM_ORIENTATIONS; o += 1) {
+            for (int m = 0; m < numMoves; m += 1) {
+                cube.setCornerOrientation(o);
+                cube.move(m);
+                orientationMoves[numMoves * o + m] = cube.cornerOrientation();
+            }
+        }
+    }
+
+    public int size() {
+        return NUM_PERMUTATIONS * NUM_ORIENTATIONS;
+    }
+
+    public int encode(CubieCube cube) {
+        return cube.cornerPermutation() * NUM_ORIENTATIONS + cube.cornerOrientation();
+    }
+
+    public void successors(int index, int numMoves, int[] out) {
+        int p = index / NUM_ORIENTATIONS;
+        int o = index % NUM_ORIENTATIONS;
+        for (int m = 0; m < numMoves; m += 1) {
+            out[m] = permutationMoves[MoveTable.NUM_MOVES * p + m] * NUM_ORIENTATIONS
+                    + orientationMoves[MoveTable.NUM_MOVES * o + m];
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package puzzlesolver;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/* Text and binary forms of a RubiksCube.
+ * The facelet string lists the color letter (see CubeUtils.colorOf) of every
+ * facelet in index order (see CubeUtils.faceletIndex): the nine facelets of
+ * white, then of yellow, green, blue, red and orange, each face in position
+ * order with the center last. The solved cube is "wwwwwwwwwyyyyyyyyy...".
+ * A record is the two longs of RubiksCube.pack, RECORD_BYTES in all. */
+public final class CubeFormat {
+    public static final int FACELET_STRING_LENGTH = 54;
+    public static final int RECORD_BYTES = 2 * Long.BYTES;
+
+    private static final char[] LETTERS = new char[6];
+    private static final byte[] COLORS = new byte[128]; // -1 for characters that are not color letters
+
+    static {
+        Arrays.fill(COLORS, (byte) -1);
+        for (int face = 0; face < 6; face += 1) {
+            LETTERS[face] = CubeUtils.colorOf(face);
+            COLORS[LETTERS[face]] = (byte) face;
+            COLORS[Character.toUpperCase(LETTERS[face])] = (byte) face;
+        }
+    }
+
+    private CubeFormat() {
+    }
+
+    /* Returns the facelet string of FACELETS */
+    static String toFaceletString(byte[] facelets) {
+        char[] text = new char[FACELET_STRING_LENGTH];
+        for (int i = 0; i < FACELET_STRING_LENGTH; i += 1) {
+            text[i] = LETTERS[facelets[i]];
+        }
+        return new String(text);
+    }
+
+    /* Sets DST to the facelets of the facelet string TEXT, in either case. Throws an
+     * IllegalArgumentException unless TEXT describes a cube that can be solved */
+    static void parseFacelets(CharSequence text, byte[] dst) {
+        if (text.length() != FACELET_STRING_LENGTH) {
+            throw new IllegalArgumentException("A facelet string has " + FACELET_STRING_LENGTH
+                    + " characters, not " + text.length());
+        }
+        int[] counts = new int[6];
+        for (int i = 0; i < FACELET_STRING_LENGTH; i += 1) {
+            char c = text.charAt(i);
+            int color = c < COLORS.length ? COLORS[c] : -1;
+            if (color < 0) {
+                throw new IllegalArgumentException("Not a color: '" + c + "' at " + i);
+            }
+            dst[i] = (byte) color;
+            counts[color] += 1;
+        }
+        for (int face = 0; face < 6; face += 1) {
+            if (counts[face] != 9) {
+                throw new IllegalArgumentException("Color " + LETTERS[face] + " appears " + counts[face] + " times");
+            }
+            if (dst[9 * face + 8] != face) {
+                throw new IllegalArgumentException("The center of " + CubeUtils.FACES[face] + " is not "
+                        + LETTERS[face]);
+            }
+        }
+        checkSolvable(dst);
+    }
+
+    /* Writes CUBE to DST as a record, at its position, packing it into SCRATCH */
+    static void writeRecord(RubiksCube cube, long[] scratch, ByteBuffer dst) {
+        cube.pack(scratch, 0);
+        dst.putLong(scratch[0]);
+        dst.putLong(scratch[1]);
+    }
+
+    /* Sets CUBE to the record of SRC at OFFSET, unpacking it from SCRATCH */
+    static void readRecord(ByteBuffer src, int offset, long[] scratch, RubiksCube cube) {
+        scratch[0] = src.getLong(offset);
+        scratch[1] = src.getLong(offset + Long.BYTES);
+        cube.unpack(scratch, 0);
+    }
+
+    /* Throws an IllegalArgumentException unless FACELETS, whose colors are already
+     * counted, hold pieces that exist, each once, twisted and swapped in a way moves can undo */
+    private static void checkSolvable(byte[] facelets) {
+        for (int[] corner: CubieCube.CORNER_FACELETS) {
+            int redOrOrange = 0;
+            for (int facelet: corner) {
+                if (facelets[facelet] >= 4) {
+                    redOrOrange += 1;
+                }
+            }
+            if (redOrOrange != 1) {
+                throw new IllegalArgumentException("A corner that does not exist");
+            }
+        }
+        CubieCube cube = new CubieCube();
+        cube.setFacelets(facelets);
+        byte[] check = new byte[FACELET_STRING_LENGTH];
+        cube.getFacelets(check);
+        if (!Arrays.equals(check, facelets)) {
+            throw new IllegalArgumentException("A piece that does not exist");
+        }
+        int corners = 0;
+        int edges = 0;
+        int twist = 0;
+        int flip = 0;
+        for (int i = 0; i < CubieCube.NUM_CORNERS; i += 1) {
+            corners |= 1 << cube.cp[i];
+            twist += cube.co[i];
+        }
+        for (int i = 0; i < CubieCube.NUM_EDGES; i += 1) {
+            edges |= 1 << cube.ep[i];
+            flip += cube.eo[i];
+        }
+        if (corners != (1 << CubieCube.NUM_CORNERS) - 1 || edges != (1 << CubieCube.NUM_EDGES) - 1) {
+            throw new IllegalArgumentException("A piece appears twice");
+        }
+        if (twist % 3 != 0) {
+            throw new IllegalArgumentException("A corner is twisted");
+        }
+        if (flip % 2 != 0) {
+            throw new IllegalArgumentException("An edge is flipped");
+        }
+        if (cube.cornerParity() != cube.edgeParity()) {
+            throw new IllegalArgumentException("Two pieces are swapped");
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package puzzlesolver;
+
+/* An admissible estimate of the number of moves needed to solve a RubiksCube:
+ * the largest of the exact distances for the corners and for each half of the edges.
+ * Each Metric has its own pattern databases, since a half turn counts as two moves
+ * in the quarter-turn metric and the quarter-turn distances would overestimate */
+public class CubeHeuristic {
+    /* The pattern databases of one Metric */
+    private static class Tables {
+        final PatternDatabase corners;
+        final PatternDatabase firstEdges;
+        final PatternDatabase lastEdges;
+
+        Tables(String suffix, Metric metric) {
+            TableStore store = TableStore.defaultStore();
+            int numMoves = metric.numMoves();
+            corners = store.loadOrBuild("corners" + suffix, new CornerCoordinate(), numMoves);
+            firstEdges = store.loadOrBuild("edges-first" + suffix, new EdgeGroupCoordinate(0), numMoves);
+            lastEdges = store.loadOrBuild("edges-last" + suffix,
+                    new EdgeGroupCoordinate(EdgeGroupCoordinate.GROUP_SIZE), numMoves);
+        }
+    }
+
+    /* Hold the tables of each metric so they are only loaded the first time they are needed */
+    private static class QuarterTurnTables {
+        static final Tables TABLES = new Tables("", Metric.QUARTER_TURN);
+    }
+
+    private static class HalfTurnTables {
+        static final Tables TABLES = new Tables("-htm", Metric.HALF_TURN);
+    }
+
+    /* Avoids allocating a CubieCube for every estimate */
+    private static final ThreadLocal<CubieCube> SCRATCH = ThreadLocal.withInitial(CubieCube::new);
+
+    private CubeHeuristic() {
+    }
+
+    /* Returns the estimated distance to solved of the given facelets in the quarter-turn metric */
+    public static int estimate(byte[] facelets) {
+        return estimate(facelets, Metric.QUARTER_TURN);
+    }
+
+    /* Returns the estimated distance to solved of the given facelets in METRIC */
+    public static int estimate(byte[] facelets, Metric metric) {
+        CubieCube cube = SCRATCH.get();
+        cube.setFacelets(facelets);
+        return estimate(cube, metric);
+    }
+
+    /* Returns the estimated distance to solved of CUBE in the quarter-turn metric */
+    public static int estimate(CubieCube cube) {
+        return estimate(cube, Metric.QUARTER_TURN);
+    }
+
+    /* Returns the estimated distance to solved of CUBE in METRIC */
+    public static int estimate(CubieCube cube, Metric metric) {
+        Tables tables = metric == Metric.HALF_TURN ? HalfTurnTables.TABLES : QuarterTurnTables.TABLES;
+        int corners = tables.corners.distance(cube);
+        int firstEdges = tables.firstEdges.distance(cube);
+        int lastEdges = tables.lastEdges.distance(cube);
+        return Math.max(corners, Math.max(firstEdges, lastEdges));
+    }
+}
@@ -0,0 +1,89 @@
+package puzzlesolver;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/* Reads the RubiksCubes of a file written by CubeRecordWriter through read-only
+ * memory-mapped chunks, either in order with next or by index with read. Reading
+ * by index is safe from any number of threads; reading in order is for one thread */
+public class CubeRecordReader implements Closeable {
+    private final RandomAccessFile file;
+    private final MappedByteBuffer[] chunks;
+    private final long count;
+    private final long[] scratch = new long[2];
+    private long position;
+
+    /* Maps FILE after checking its header */
+    public CubeRecordReader(File file) throws IOException {
+        this.file = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = this.file.getChannel();
+            ByteBuffer header = ByteBuffer.allocate(CubeRecordWriter.HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                continue;
+            }
+            header.flip();
+            if (header.remaining() < CubeRecordWriter.HEADER_BYTES || header.getInt() != CubeRecordWriter.MAGIC) {
+                throw new IOException(file + " is not a cube record file");
+            }
+            if (header.getInt() != CubeRecordWriter.VERSION) {
+                throw new IOException(file + " has an unknown format version");
+            }
+            count = header.getLong();
+            if (channel.size() != CubeRecordWriter.HEADER_BYTES + count * CubeFormat.RECORD_BYTES) {
+                throw new IOException(file + " is truncated or was not closed by its writer");
+            }
+            long chunkBytes = (long) CubeRecordWriter.CHUNK_RECORDS * CubeFormat.RECORD_BYTES;
+            chunks = new MappedByteBuffer[(int) ((count + CubeRecordWriter.CHUNK_RECORDS - 1)
+                    / CubeRecordWriter.CHUNK_RECORDS)];
+            for (int i = 0; i < chunks.length; i += 1) {
+                long start = i * chunkBytes;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, CubeRecordWriter.HEADER_BYTES + start,
+                        Math.min(chunkBytes, count * CubeFormat.RECORD_BYTES - start));
+            }
+        } catch (IOException | RuntimeException e) {
+            this.file.close();
+            throw e;
+        }
+    }
+
+    /* Returns the number of cubes in the file */
+    public long count() {
+        return count;
+    }
+
+    /* Returns whether next has cubes left to read */
+    public boolean hasNext() {
+        return position < count;
+    }
+
+    /* Sets CUBE to the next cube in the file */
+    public void next(RubiksCube cube) {
+        read(position, scratch, cube);
+        position += 1;
+    }
+
+    /* Sets CUBE to cube number INDEX of the file, from 0 */
+    public void read(long index, RubiksCube cube) {
+        read(index, new long[2], cube);
+    }
+
+    private void read(long index, long[] buffer, RubiksCube cube) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("No cube " + index + " in " + count);
+        }
+        ByteBuffer chunk = chunks[(int) (index / CubeRecordWriter.CHUNK_RECORDS)];
+        int offset = (int) (index % CubeRecordWriter.CHUNK_RECORDS) * CubeFormat.RECORD_BYTES;
+        CubeFormat.readRecord(chunk, offset, buffer, cube);
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
@@ -0,0 +1,100 @@
+package puzzlesolver;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/* Writes RubiksCubes to a file of records (see CubeFormat), collecting them in a
+ * direct buffer that is written out a megabyte at a time. The file always holds
+ * exactly the header and the records written out so far, so it never has to be
+ * truncated: truncating a file that is still mapped fails on some platforms, and
+ * Java cannot unmap a buffer. A writer is for one thread at a time.
+ *
+ * File layout: magic, format version, number of records, then the records. The
+ * header counts no records until the writer is closed, so CubeRecordReader
+ * rejects the file of a writer that did not finish. */
+public class CubeRecordWriter implements Closeable {
+    static final int MAGIC = 0x43554252; // "CUBR"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 4 + 4 + 8;
+    static final int CHUNK_RECORDS = 1 << 22; // 64 MB of records per mapping, see CubeRecordReader
+    private static final int BUFFER_RECORDS = 1 << 16; // 1 MB of records per write
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * CubeFormat.RECORD_BYTES);
+    private final long[] scratch = new long[2];
+    private long count;
+    private boolean closed;
+
+    /* Creates FILE, or empties it if it exists, and writes a header counting no records */
+    public CubeRecordWriter(File file) throws IOException {
+        this.file = new RandomAccessFile(file, "rw");
+        try {
+            this.file.setLength(0);
+            channel = this.file.getChannel();
+            writeHeader(0);
+            channel.position(HEADER_BYTES);
+        } catch (IOException | RuntimeException e) {
+            this.file.close();
+            throw e;
+        }
+    }
+
+    /* Appends CUBE. Throws an IllegalStateException once the writer is closed */
+    public void write(RubiksCube cube) {
+        if (closed) {
+            throw new IllegalStateException("The writer is closed");
+        }
+        CubeFormat.writeRecord(cube, scratch, buffer);
+        count += 1;
+        if (!buffer.hasRemaining()) {
+            try {
+                flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /* Returns the number of cubes written so far */
+    public long count() {
+        return count;
+    }
+
+    /* Writes out the buffered records and the final header. Does nothing if already closed */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flush();
+            writeHeader(count);
+        } finally {
+            file.close();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void writeHeader(long numRecords) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putLong(numRecords);
+        header.flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+    }
+}
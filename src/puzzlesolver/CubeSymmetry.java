@@ -0,0 +1,178 @@
+package puzzlesolver;
+
+import java.util.Arrays;
+
+/* The 48 spatial symmetries of a RubiksCube: the 24 rotations of the whole cube,
+ * each with or without a mirror image. Seeing a cube through a symmetry moves
+ * every sticker to where the symmetry takes it and then recolors it so that the
+ * centers keep their colors, which maps the solved cube to itself and a cube
+ * n moves from solved to another cube n moves from solved. Cubes that map to
+ * each other are equally hard to solve, so tables indexed by the representative
+ * of a cube (see canonicalize) need one entry for up to 48 cubes.
+ * Symmetries have ids from 0 (the identity) to NUM_SYMMETRIES - 1; the first
+ * NUM_UD_SYMMETRIES keep the white and yellow faces on the white/yellow axis, which
+ * also keeps the slice edges of CubieCube in the slice */
+public final class CubeSymmetry {
+    public static final int NUM_SYMMETRIES = 48;
+    public static final int NUM_UD_SYMMETRIES = 16;
+
+    /* FACE_MAPS[s][f] is the face that symmetry s takes face f to */
+    private static final byte[][] FACE_MAPS = new byte[NUM_SYMMETRIES][6];
+
+    /* SOURCES[s][i] is the facelet that symmetry s takes to facelet i */
+    private static final byte[][] SOURCES = new byte[NUM_SYMMETRIES][54];
+
+    /* MOVES[s][m] is the move that does to a cube seen through s what move m does to the cube */
+    private static final byte[][] MOVES = new byte[NUM_SYMMETRIES][MoveTable.NUM_MOVES];
+
+    private static final byte[] INVERSES = new byte[NUM_SYMMETRIES];
+
+    static {
+        int[][] axisOrders = {{0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}};
+        int s = 0;
+        for (int[] axes: axisOrders) { // the orders keeping the white/yellow axis come first
+            for (int flips = 0; flips < 8; flips += 1) {
+                for (int face = 0; face < 6; face += 1) {
+                    int axis = face >> 1;
+                    FACE_MAPS[s][face] = (byte) (2 * axes[axis] + ((face & 1) ^ ((flips >> axis) & 1)));
+                }
+                fillSources(FACE_MAPS[s], SOURCES[s]);
+                s += 1;
+            }
+        }
+        byte[] solved = new byte[54];
+        byte[] moved = new byte[54];
+        byte[] seen = new byte[54];
+        byte[] expected = new byte[54];
+        CubeUtils.initializeFacelets(solved);
+        for (s = 0; s < NUM_SYMMETRIES; s += 1) {
+            for (int move = 0; move < MoveTable.NUM_MOVES; move += 1) {
+                MoveTable.apply(move, solved, moved);
+                conjugate(s, moved, seen);
+                MOVES[s][move] = (byte) findMove(solved, seen, expected);
+            }
+            for (int t = 0; t < NUM_SYMMETRIES; t += 1) {
+                if (composesToIdentity(s, t)) {
+                    INVERSES[s] = (byte) t;
+                }
+            }
+        }
+    }
+
+    private CubeSymmetry() {
+    }
+
+    /* Sets DST to the cube SRC seen through symmetry SYM */
+    public static void conjugate(int sym, byte[] src, byte[] dst) {
+        byte[] sources = SOURCES[sym];
+        byte[] faceMap = FACE_MAPS[sym];
+        for (int i = 0; i < 54; i += 1) {
+            dst[i] = faceMap[src[sources[i]]];
+        }
+    }
+
+    /* Returns the move that does to a cube seen through SYM what MOVE does to the cube */
+    public static int conjugateMove(int sym, int move) {
+        return MOVES[sym][move];
+    }
+
+    /* Returns the symmetry that undoes SYM */
+    public static int inverse(int sym) {
+        return INVERSES[sym];
+    }
+
+    /* Returns whether SYM mirrors the cube, which turns clockwise moves into counterclockwise ones */
+    public static boolean isReflection(int sym) {
+        return MOVES[sym][0] % 2 == 1 && !MoveTable.isHalfTurn(MOVES[sym][0]);
+    }
+
+    /* Returns the symmetry among the first NUMSYMMETRIES (1, NUM_UD_SYMMETRIES or
+     * NUM_SYMMETRIES) through which FACELETS looks smallest, comparing facelet by facelet.
+     * Every cube that maps to FACELETS under those symmetries looks the same through the
+     * symmetry returned for it, which makes that cube the representative of them all */
+    public static int canonicalSymmetry(byte[] facelets, int numSymmetries) {
+        int best = 0;
+        for (int s = 1; s < numSymmetries; s += 1) {
+            byte[] sources = SOURCES[s];
+            byte[] faceMap = FACE_MAPS[s];
+            byte[] bestSources = SOURCES[best];
+            byte[] bestFaceMap = FACE_MAPS[best];
+            for (int i = 0; i < 54; i += 1) {
+                int diff = faceMap[facelets[sources[i]]] - bestFaceMap[facelets[bestSources[i]]];
+                if (diff != 0) {
+                    if (diff < 0) {
+                        best = s;
+                    }
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    /* Sets DST to the representative of FACELETS under the first NUMSYMMETRIES symmetries
+     * (see canonicalSymmetry) and returns the symmetry it is seen through */
+    public static int canonicalize(byte[] facelets, int numSymmetries, byte[] dst) {
+        int sym = canonicalSymmetry(facelets, numSymmetries);
+        conjugate(sym, facelets, dst);
+        return sym;
+    }
+
+    /* Fills SOURCES from FACEMAP: each corner, edge and center goes to the piece
+     * on the faces FACEMAP takes its faces to, each sticker staying on its face */
+    private static void fillSources(byte[] faceMap, byte[] sources) {
+        for (int face = 0; face < 6; face += 1) {
+            sources[9 * faceMap[face] + 8] = (byte) (9 * face + 8);
+        }
+        fillPieceSources(CubieCube.CORNER_FACELETS, faceMap, sources);
+        fillPieceSources(CubieCube.EDGE_FACELETS, faceMap, sources);
+    }
+
+    private static void fillPieceSources(int[][] pieces, byte[] faceMap, byte[] sources) {
+        for (int[] piece: pieces) {
+            int[] target = null;
+            for (int[] candidate: pieces) {
+                if (faceSet(candidate, null) == faceSet(piece, faceMap)) {
+                    target = candidate;
+                }
+            }
+            for (int facelet: piece) {
+                for (int targetFacelet: target) {
+                    if (targetFacelet / 9 == faceMap[facelet / 9]) {
+                        sources[targetFacelet] = (byte) facelet;
+                    }
+                }
+            }
+        }
+    }
+
+    /* Returns a bitmask of the faces of the stickers of PIECE, mapped by FACEMAP unless it is null */
+    private static int faceSet(int[] piece, byte[] faceMap) {
+        int set = 0;
+        for (int facelet: piece) {
+            set |= 1 << (faceMap == null ? facelet / 9 : faceMap[facelet / 9]);
+        }
+        return set;
+    }
+
+    /* Returns the move that takes SOLVED to TARGET, using SCRATCH */
+    private static int findMove(byte[] solved, byte[] target, byte[] scratch) {
+        for (int move = 0; move < MoveTable.NUM_MOVES; move += 1) {
+            MoveTable.apply(move, solved, scratch);
+            if (Arrays.equals(scratch, target)) {
+                return move;
+            }
+        }
+        throw new IllegalStateException("A symmetry does not map moves to moves");
+    }
+
+    /* Returns whether seeing a cube through S and then through T gives the cube back */
+    private static boolean composesToIdentity(int s, int t) {
+        for (int i = 0; i < 54; i += 1) {
+            if (SOURCES[s][SOURCES[t][i]] != i) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
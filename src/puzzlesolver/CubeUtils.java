@@ -5,16 +5,28 @@ import java.util.*;
 /* A collection of methods used by RubiksCube.java */
 public class CubeUtils {
 
-    /**
-     * Makes a deep copy of a 2D array
-     * @source https://stackoverflow.com/questions/1564832/how-do-i-do-a-deep-copy-of-a-2d-array-in-java
-     */
-    public static char[][] deepCopy(char[][] arr) {
-        char[][] copy = new char[arr.length][];
-        for (int i = 0; i < arr.length; i += 1) {
-            copy[i] = Arrays.copyOf(arr[i], arr[i].length);
+    /* The faces of the cube, in the order their facelets are stored.
+     * Opposite faces are stored next to each other. */
+    public static final String[] FACES = {"white", "yellow", "green", "blue", "red", "orange"};
+
+    /* Returns the index of FACE in FACES */
+    public static int faceIndex(String face) {
+        for (int i = 0; i < FACES.length; i += 1) {
+            if (FACES[i].equals(face)) {
+                return i;
+            }
         }
-        return copy;
+        throw new IllegalArgumentException("Unknown face: " + face);
+    }
+
+    /* Returns the index of the facelet at POSITION on FACE in a facelet array */
+    public static int faceletIndex(String face, int position) {
+        return 9 * faceIndex(face) + position - 1;
+    }
+
+    /* Returns the character used to print the color of face FACEINDEX */
+    public static char colorOf(int faceIndex) {
+        return FACES[faceIndex].charAt(0);
     }
 
     /* Appropriately fills faceMap */
@@ -136,159 +148,96 @@ public class CubeUtils {
         moveMap.put(10, new Move("red", "ccw"));
         moveMap.put(11, new Move("orange", "cw"));
         moveMap.put(12, new Move("orange", "ccw"));
+        moveMap.put(13, new Move("white", "180"));
+        moveMap.put(14, new Move("yellow", "180"));
+        moveMap.put(15, new Move("green", "180"));
+        moveMap.put(16, new Move("blue", "180"));
+        moveMap.put(17, new Move("red", "180"));
+        moveMap.put(18, new Move("orange", "180"));
     }
 
-    /* Initializes cubeMap to a solved state */
-    public static void initializeCubeMap(HashMap<CubePosition, Character> cubeMap) {
-        CubePosition toPut;
-        for (int i = 1; i <= 9; i += 1) {
-            toPut = new CubePosition("white", i);
-            cubeMap.put(toPut, 'w');
-        }
-        for (int i = 1; i <= 9; i += 1) {
-            toPut = new CubePosition("orange", i);
-            cubeMap.put(toPut, 'o');
-        }
-        for (int i = 1; i <= 9; i += 1) {
-            toPut = new CubePosition("green", i);
-            cubeMap.put(toPut, 'g');
-        }
-        for (int i = 1; i <= 9; i += 1) {
-            toPut = new CubePosition("blue", i);
-            cubeMap.put(toPut, 'b');
-        }
-        for (int i = 1; i <= 9; i += 1) {
-            toPut = new CubePosition("yellow", i);
-            cubeMap.put(toPut, 'y');
-        }
-        for (int i = 1; i <= 9; i += 1) {
-            toPut = new CubePosition("red", i);
-            cubeMap.put(toPut, 'r');
+    /* Initializes the facelets to a solved state */
+    public static void initializeFacelets(byte[] facelets) {
+        for (int i = 0; i < facelets.length; i += 1) {
+            facelets[i] = (byte) (i / 9); // every face holds 9 facelets
         }
     }
 
     /* Fills the rows of the 2D array representing the cube */
-    public static void fillRows(HashMap<CubePosition, Character> cubeMap, char[][] cubeArr) {
+    public static void fillRows(byte[] facelets, char[][] cubeArr) {
         for (int row = 1; row <= 9; row += 1) {
             if (row <= 3) {
-                fillTopOrBottom(cubeMap, cubeArr, row, "orange");
+                fillTopOrBottom(facelets, cubeArr, row, "orange");
             } else if (row >= 7) {
-                fillTopOrBottom(cubeMap, cubeArr, row, "red");
+                fillTopOrBottom(facelets, cubeArr, row, "red");
             } else {
-                fillMiddle(cubeMap, cubeArr, row);
+                fillMiddle(facelets, cubeArr, row);
             }
         }
     }
 
     /* Fills the top and bottom faces of the cube */
-    private static void fillTopOrBottom(HashMap<CubePosition, Character> cubeMap, char[][] cubeArr, int row, String face) {
+    private static void fillTopOrBottom(byte[] facelets, char[][] cubeArr, int row, String face) {
         if (row == 1 || row == 7) {
-            cubeArr[row - 1][3] = cubeMap.get(new CubePosition(face, 5));
-            cubeArr[row - 1][4] = cubeMap.get(new CubePosition(face, 2));
-            cubeArr[row - 1][5] = cubeMap.get(new CubePosition(face, 6));
+            cubeArr[row - 1][3] = colorOf(facelets[faceletIndex(face, 5)]);
+            cubeArr[row - 1][4] = colorOf(facelets[faceletIndex(face, 2)]);
+            cubeArr[row - 1][5] = colorOf(facelets[faceletIndex(face, 6)]);
         }
         if (row == 2 || row == 8) {
-            cubeArr[row - 1][3] = cubeMap.get(new CubePosition(face, 1));
-            cubeArr[row - 1][4] = cubeMap.get(new CubePosition(face, 9));
-            cubeArr[row - 1][5] = cubeMap.get(new CubePosition(face, 3));
+            cubeArr[row - 1][3] = colorOf(facelets[faceletIndex(face, 1)]);
+            cubeArr[row - 1][4] = colorOf(facelets[faceletIndex(face, 9)]);
+            cubeArr[row - 1][5] = colorOf(facelets[faceletIndex(face, 3)]);
         }
         if (row == 3 || row == 9) {
-            cubeArr[row - 1][3] = cubeMap.get(new CubePosition(face, 8));
-            cubeArr[row - 1][4] = cubeMap.get(new CubePosition(face, 4));
-            cubeArr[row - 1][5] = cubeMap.get(new CubePosition(face, 7));
+            cubeArr[row - 1][3] = colorOf(facelets[faceletIndex(face, 8)]);
+            cubeArr[row - 1][4] = colorOf(facelets[faceletIndex(face, 4)]);
+            cubeArr[row - 1][5] = colorOf(facelets[faceletIndex(face, 7)]);
         }
     }
 
     /* Fills the middle faces of the cube */
-    private static void fillMiddle(HashMap<CubePosition, Character> cubeMap, char[][] cubeArr, int row) {
+    private static void fillMiddle(byte[] facelets, char[][] cubeArr, int row) {
         ThreeDigitIterator tdi;
         if (row == 4) {
             tdi = new ThreeDigitIterator(5, 2, 6);
-            fillRow(cubeMap, cubeArr, tdi, row);
+            fillRow(facelets, cubeArr, tdi, row);
         }
         if (row == 5) {
             tdi = new ThreeDigitIterator(1, 9, 3);
-            fillRow(cubeMap, cubeArr, tdi, row);
+            fillRow(facelets, cubeArr, tdi, row);
         }
         if (row == 6) {
             tdi = new ThreeDigitIterator(8, 4, 7);
-            fillRow(cubeMap, cubeArr, tdi, row);
+            fillRow(facelets, cubeArr, tdi, row);
         }
     }
 
     /* Helps with segmentation of middle faces */
-    private static void fillRow(HashMap<CubePosition, Character> cubeMap, char[][] cubeArr, ThreeDigitIterator tdi, int row) {
+    private static void fillRow(byte[] facelets, char[][] cubeArr, ThreeDigitIterator tdi, int row) {
         for (int i = 0; i < 12; i += 1) {
+            String face;
             if (i <= 2) {
-                cubeArr[row - 1][i] = cubeMap.get(new CubePosition("green", tdi.next()));
+                face = "green";
             } else if (i <= 5) {
-                cubeArr[row - 1][i] = cubeMap.get(new CubePosition("white", tdi.next()));
+                face = "white";
             } else if (i <= 8) {
-                cubeArr[row - 1][i] = cubeMap.get(new CubePosition("blue", tdi.next()));
+                face = "blue";
             } else {
-                cubeArr[row - 1][i] = cubeMap.get(new CubePosition("yellow", tdi.next()));
-            }
-        }
-    }
-
-    /* Updates cubeMap to match cubeArr */
-    public static void updateCubeMap(HashMap<CubePosition, Character> cubeMap, char[][] cubeArr) {
-        for (int row = 0; row < 9; row += 1) {
-            for (int col = 0; col < 12; col += 1) {
-                if (cubeArr[row][col] == '-') {
-                    continue;
-                } else if (row <= 2) {
-                    putInCubeMap(cubeMap, cubeArr, "orange", row, col);
-                } else if (row >= 6) {
-                    putInCubeMap(cubeMap, cubeArr, "red", row, col);
-                } else if (col <= 2) {
-                    putInCubeMap(cubeMap, cubeArr, "green", row, col);
-                } else if (col <= 5) {
-                    putInCubeMap(cubeMap, cubeArr, "white", row, col);
-                } else if (col <= 8) {
-                    putInCubeMap(cubeMap, cubeArr, "blue", row, col);
-                } else if (col <= 11) {
-                    putInCubeMap(cubeMap, cubeArr, "yellow", row, col);
-                }
-            }
-        }
-    }
-
-    private static void putInCubeMap(HashMap<CubePosition, Character> cubeMap, char[][] cubeArr, String face, int row, int col) {
-        if (row == 0 || row == 6 || row == 3) {
-            if (col == 3 || col == 0 || col == 6 || col == 9) {
-                cubeMap.put(new CubePosition(face, 5), cubeArr[row][col]);
-            } else if (col == 4 || col == 1 || col == 7 || col == 10) {
-                cubeMap.put(new CubePosition(face, 2), cubeArr[row][col]);
-            } else if (col == 5 || col == 2 || col == 8 || col == 11) {
-                cubeMap.put(new CubePosition(face, 6), cubeArr[row][col]);
-            }
-        } else if (row == 1 || row == 7 || row == 4) {
-            if (col == 3 || col == 0 || col == 6 || col == 9) {
-                cubeMap.put(new CubePosition(face, 1), cubeArr[row][col]);
-            } else if (col == 4 || col == 1 || col == 7 || col == 10) {
-                cubeMap.put(new CubePosition(face, 9), cubeArr[row][col]);
-            } else if (col == 5 || col == 2 || col == 8 || col == 11) {
-                cubeMap.put(new CubePosition(face, 3), cubeArr[row][col]);
-            }
-        } else if (row == 2 || row == 8 || row == 5) {
-            if (col == 3 || col == 0 || col == 6 || col == 9) {
-                cubeMap.put(new CubePosition(face, 8), cubeArr[row][col]);
-            } else if (col == 4 || col == 1 || col == 7 || col == 10) {
-                cubeMap.put(new CubePosition(face, 4), cubeArr[row][col]);
-            } else if (col == 5 || col == 2 || col == 8 || col == 11) {
-                cubeMap.put(new CubePosition(face, 7), cubeArr[row][col]);
+                face = "yellow";
             }
+            cubeArr[row - 1][i] = colorOf(facelets[faceletIndex(face, tdi.next())]);
         }
     }
 
-    /* Prints a 2D char array */
+    /* Prints a 2D char array with a single call to System.out */
     public static void print2DArray(char[][] arr) {
+        StringBuilder text = new StringBuilder();
         for (char[] row: arr) {
             for (char c: row) {
-                System.out.print(c + " ");
+                text.append(c).append(' ');
             }
-            System.out.println();
+            text.append(System.lineSeparator());
         }
+        System.out.print(text);
     }
 }
@@ -0,0 +1,442 @@
+package puzzlesolver;
+
+/* A RubiksCube described by its pieces instead of its stickers.
+ * Slot i holds corner cp[i] twisted by co[i] and edge ep[i] flipped by eo[i].
+ * Orientations are measured against the orange/red stickers for corners and for
+ * the edges of the orange and red faces, and against the white/yellow stickers
+ * for the remaining edges. */
+public class CubieCube {
+    public static final int NUM_CORNERS = 8;
+    public static final int NUM_EDGES = 12;
+
+    /* The facelets of each corner slot, listed clockwise starting from the orange or red sticker */
+    static final int[][] CORNER_FACELETS = {
+        {at("orange", 7), at("blue", 5), at("white", 6)},
+        {at("orange", 8), at("white", 5), at("green", 6)},
+        {at("orange", 5), at("green", 5), at("yellow", 6)},
+        {at("orange", 6), at("yellow", 5), at("blue", 6)},
+        {at("red", 6), at("white", 7), at("blue", 8)},
+        {at("red", 5), at("green", 7), at("white", 8)},
+        {at("red", 8), at("yellow", 7), at("green", 8)},
+        {at("red", 7), at("blue", 7), at("yellow", 8)}
+    };
+
+    /* The facelets of each edge slot, starting from the sticker orientation is measured against */
+    static final int[][] EDGE_FACELETS = {
+        {at("orange", 3), at("blue", 2)},
+        {at("orange", 4), at("white", 2)},
+        {at("orange", 1), at("green", 2)},
+        {at("orange", 2), at("yellow", 2)},
+        {at("red", 3), at("blue", 4)},
+        {at("red", 2), at("white", 4)},
+        {at("red", 1), at("green", 4)},
+        {at("red", 4), at("yellow", 4)},
+        {at("white", 3), at("blue", 1)},
+        {at("white", 1), at("green", 3)},
+        {at("yellow", 3), at("green", 1)},
+        {at("yellow", 1), at("blue", 3)}
+    };
+
+    /* CORNER_PIECES[36 * a + 6 * b + c] is the corner whose stickers read a, b, c clockwise
+     * from its orange or red sticker; EDGE_PIECES[6 * a + b] is the edge with stickers a, b */
+    private static final byte[] CORNER_PIECES = new byte[216];
+    private static final byte[] EDGE_PIECES = new byte[36];
+
+    /* FACTORIALS[n] is n! */
+    private static final int[] FACTORIALS = {1, 1, 2, 6, 24, 120, 720, 5040, 40320, 362880,
+        3628800, 39916800, 479001600};
+
+    /* MOVE_CUBES[id] is the result of applying the move with the given id to a solved cube */
+    private static final CubieCube[] MOVE_CUBES = new CubieCube[MoveTable.NUM_MOVES];
+
+    static {
+        for (int i = 0; i < NUM_CORNERS; i += 1) {
+            int[] f = CORNER_FACELETS[i];
+            CORNER_PIECES[36 * (f[0] / 9) + 6 * (f[1] / 9) + f[2] / 9] = (byte) i;
+        }
+        for (int i = 0; i < NUM_EDGES; i += 1) {
+            int[] f = EDGE_FACELETS[i];
+            EDGE_PIECES[6 * (f[0] / 9) + f[1] / 9] = (byte) i;
+            EDGE_PIECES[6 * (f[1] / 9) + f[0] / 9] = (byte) i;
+        }
+        byte[] solved = new byte[54];
+        byte[] moved = new byte[54];
+        CubeUtils.initializeFacelets(solved);
+        for (int move = 0; move < MoveTable.NUM_MOVES; move += 1) {
+            MoveTable.apply(move, solved, moved);
+            MOVE_CUBES[move] = new CubieCube();
+            MOVE_CUBES[move].setFacelets(moved);
+        }
+    }
+
+    final byte[] cp = new byte[NUM_CORNERS];
+    final byte[] co = new byte[NUM_CORNERS];
+    final byte[] ep = new byte[NUM_EDGES];
+    final byte[] eo = new byte[NUM_EDGES];
+    private final byte[] tempPerm = new byte[NUM_EDGES];
+    private final byte[] tempOri = new byte[NUM_EDGES];
+
+    /* Creates a solved CubieCube */
+    public CubieCube() {
+        reset();
+    }
+
+    /* Resets the pieces to the solved state */
+    public void reset() {
+        for (int i = 0; i < NUM_CORNERS; i += 1) {
+            cp[i] = (byte) i;
+            co[i] = 0;
+        }
+        for (int i = 0; i < NUM_EDGES; i += 1) {
+            ep[i] = (byte) i;
+            eo[i] = 0;
+        }
+    }
+
+    /* Reads the pieces from a facelet array (see CubeUtils.faceletIndex) */
+    public void setFacelets(byte[] facelets) {
+        for (int i = 0; i < NUM_CORNERS; i += 1) {
+            int[] f = CORNER_FACELETS[i];
+            int ori = 0;
+            while (facelets[f[ori]] != 4 && facelets[f[ori]] != 5) { // red or orange sticker
+                ori += 1;
+            }
+            int first = facelets[f[ori]];
+            int second = facelets[f[(ori + 1) % 3]];
+            int third = facelets[f[(ori + 2) % 3]];
+            cp[i] = CORNER_PIECES[36 * first + 6 * second + third];
+            co[i] = (byte) ori;
+        }
+        for (int i = 0; i < NUM_EDGES; i += 1) {
+            int[] f = EDGE_FACELETS[i];
+            byte piece = EDGE_PIECES[6 * facelets[f[0]] + facelets[f[1]]];
+            ep[i] = piece;
+            eo[i] = (byte) (facelets[f[0]] == EDGE_FACELETS[piece][0] / 9 ? 0 : 1);
+        }
+    }
+
+    /* Writes the pieces into a facelet array (see CubeUtils.faceletIndex) */
+    public void getFacelets(byte[] facelets) {
+        CubeUtils.initializeFacelets(facelets); // centers never move
+        for (int i = 0; i < NUM_CORNERS; i += 1) {
+            for (int k = 0; k < 3; k += 1) {
+                facelets[CORNER_FACELETS[i][(k + co[i]) % 3]] = (byte) (CORNER_FACELETS[cp[i]][k] / 9);
+            }
+        }
+        for (int i = 0; i < NUM_EDGES; i += 1) {
+            for (int k = 0; k < 2; k += 1) {
+                facelets[EDGE_FACELETS[i][(k + eo[i]) % 2]] = (byte) (EDGE_FACELETS[ep[i]][k] / 9);
+            }
+        }
+    }
+
+    /* Applies the move with id MOVE (see MoveTable) */
+    public void move(int move) {
+        multiply(MOVE_CUBES[move]);
+    }
+
+    /* Replaces this cube with the result of applying the pieces of OTHER to it */
+    public void multiply(CubieCube other) {
+        for (int i = 0; i < NUM_CORNERS; i += 1) {
+            tempPerm[i] = cp[other.cp[i]];
+            tempOri[i] = (byte) ((co[other.cp[i]] + other.co[i]) % 3);
+        }
+        System.arraycopy(tempPerm, 0, cp, 0, NUM_CORNERS);
+        System.arraycopy(tempOri, 0, co, 0, NUM_CORNERS);
+        for (int i = 0; i < NUM_EDGES; i += 1) {
+            tempPerm[i] = ep[other.ep[i]];
+            tempOri[i] = (byte) (eo[other.ep[i]] ^ other.eo[i]);
+        }
+        System.arraycopy(tempPerm, 0, ep, 0, NUM_EDGES);
+        System.arraycopy(tempOri, 0, eo, 0, NUM_EDGES);
+    }
+
+    /* Copies the pieces of OTHER into this cube */
+    public void set(CubieCube other) {
+        System.arraycopy(other.cp, 0, cp, 0, NUM_CORNERS);
+        System.arraycopy(other.co, 0, co, 0, NUM_CORNERS);
+        System.arraycopy(other.ep, 0, ep, 0, NUM_EDGES);
+        System.arraycopy(other.eo, 0, eo, 0, NUM_EDGES);
+    }
+
+    /* Returns the corners packed 5 bits per slot: the corner in the slot, then its orientation */
+    public long packCorners() {
+        long packed = 0;
+        for (int i = 0; i < NUM_CORNERS; i += 1) {
+            packed |= (long) (cp[i] << 2 | co[i]) << (5 * i);
+        }
+        return packed;
+    }
+
+    /* Returns the edges packed 5 bits per slot: the edge in the slot, then its orientation */
+    public long packEdges() {
+        long packed = 0;
+        for (int i = 0; i < NUM_EDGES; i += 1) {
+            packed |= (long) (ep[i] << 1 | eo[i]) << (5 * i);
+        }
+        return packed;
+    }
+
+    /* Sets the pieces from the results of packCorners and packEdges */
+    public void unpack(long corners, long edges) {
+        for (int i = 0; i < NUM_CORNERS; i += 1) {
+            int slot = (int) (corners >>> (5 * i)) & 0x1F;
+            cp[i] = (byte) (slot >> 2);
+            co[i] = (byte) (slot & 3);
+        }
+        for (int i = 0; i < NUM_EDGES; i += 1) {
+            int slot = (int) (edges >>> (5 * i)) & 0x1F;
+            ep[i] = (byte) (slot >> 1);
+            eo[i] = (byte) (slot & 1);
+        }
+    }
+
+    /* Returns the slot that the piece in slot SLOT is moved to by MOVE */
+    static int edgeDestination(int move, int slot) {
+        byte[] moveEp = MOVE_CUBES[move].ep;
+        for (int i = 0; i < NUM_EDGES; i += 1) {
+            if (moveEp[i] == slot) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown edge slot: " + slot);
+    }
+
+    /* Returns whether MOVE flips the edge it moves into slot SLOT */
+    static int edgeFlip(int move, int slot) {
+        return MOVE_CUBES[move].eo[slot];
+    }
+
+    ////////////////////////
+    /* CORNER COORDINATES */
+    ////////////////////////
+
+    /* Returns the rank of the corner permutation, from 0 to 8! - 1 */
+    public int cornerPermutation() {
+        return rankPermutation(cp, NUM_CORNERS);
+    }
+
+    /* Sets the corner permutation from its rank */
+    public void setCornerPermutation(int rank) {
+        unrankPermutation(rank, cp, NUM_CORNERS);
+    }
+
+    /* Returns the corner twists as a base 3 number, from 0 to 3^7 - 1.
+     * The twist of the last corner is implied by the others. */
+    public int cornerOrientation() {
+        int index = 0;
+        for (int i = 0; i < NUM_CORNERS - 1; i += 1) {
+            index = 3 * index + co[i];
+        }
+        return index;
+    }
+
+    /* Sets the corner twists from their base 3 number */
+    public void setCornerOrientation(int index) {
+        int sum = 0;
+        for (int i = NUM_CORNERS - 2; i >= 0; i -= 1) {
+            co[i] = (byte) (index % 3);
+            sum += co[i];
+            index /= 3;
+        }
+        co[NUM_CORNERS - 1] = (byte) ((3 - sum % 3) % 3);
+    }
+
+    /* Returns whether the corner permutation is odd. A cube that can be reached by
+     * moves has corner and edge permutations of the same parity */
+    public boolean cornerParity() {
+        return isOdd(cp, NUM_CORNERS);
+    }
+
+    //////////////////////
+    /* EDGE COORDINATES */
+    //////////////////////
+
+    /* The edges of the slice between the orange and red faces: white-blue, white-green,
+     * yellow-green and yellow-blue. Phase two of TwoPhaseSearch keeps them in that slice */
+    public static final int FIRST_SLICE_EDGE = 8;
+    private static final int NUM_SLICE_EDGES = NUM_EDGES - FIRST_SLICE_EDGE;
+
+    /* Returns the edge flips as a base 2 number, from 0 to 2^11 - 1.
+     * The flip of the last edge is implied by the others. */
+    public int edgeOrientation() {
+        int index = 0;
+        for (int i = 0; i < NUM_EDGES - 1; i += 1) {
+            index = 2 * index + eo[i];
+        }
+        return index;
+    }
+
+    /* Sets the edge flips from their base 2 number */
+    public void setEdgeOrientation(int index) {
+        int sum = 0;
+        for (int i = NUM_EDGES - 2; i >= 0; i -= 1) {
+            eo[i] = (byte) (index & 1);
+            sum += eo[i];
+            index >>= 1;
+        }
+        eo[NUM_EDGES - 1] = (byte) (sum & 1);
+    }
+
+    /* Returns the rank of the permutation of all 12 edges, from 0 to 12! - 1 */
+    public int edgePermutation() {
+        return rankPermutation(ep, NUM_EDGES);
+    }
+
+    /* Sets the permutation of all 12 edges from its rank */
+    public void setEdgePermutation(int rank) {
+        unrankPermutation(rank, ep, NUM_EDGES);
+    }
+
+    /* Returns whether the edge permutation is odd, see cornerParity */
+    public boolean edgeParity() {
+        return isOdd(ep, NUM_EDGES);
+    }
+
+    /* Swaps the edges in slots A and B, which changes the parity of the edge permutation */
+    void swapEdges(int a, int b) {
+        byte edge = ep[a];
+        ep[a] = ep[b];
+        ep[b] = edge;
+    }
+
+    /* Returns which 4 slots hold the slice edges, ignoring their order,
+     * as a combination rank from 0 to C(12, 4) - 1 */
+    public int sliceCombination() {
+        int rank = 0;
+        int k = 0;
+        for (int s = 0; s < NUM_EDGES; s += 1) {
+            if (ep[s] >= FIRST_SLICE_EDGE) {
+                k += 1;
+                rank += binomial(s, k);
+            }
+        }
+        return rank;
+    }
+
+    /* Places the slice edges in the slots of the given combination RANK
+     * and the other edges, in order, in the remaining slots */
+    public void setSliceCombination(int rank) {
+        boolean[] inSlice = new boolean[NUM_EDGES];
+        for (int k = NUM_SLICE_EDGES; k >= 1; k -= 1) {
+            int s = k - 1;
+            while (binomial(s + 1, k) <= rank) {
+                s += 1;
+            }
+            inSlice[s] = true;
+            rank -= binomial(s, k);
+        }
+        int nextSlice = FIRST_SLICE_EDGE;
+        int nextOther = 0;
+        for (int s = 0; s < NUM_EDGES; s += 1) {
+            if (inSlice[s]) {
+                ep[s] = (byte) nextSlice;
+                nextSlice += 1;
+            } else {
+                ep[s] = (byte) nextOther;
+                nextOther += 1;
+            }
+        }
+    }
+
+    /* Returns the rank of the permutation of the 8 edges outside the slice,
+     * from 0 to 8! - 1. Only meaningful when they are all outside the slice. */
+    public int udEdgePermutation() {
+        return rankPermutation(ep, FIRST_SLICE_EDGE);
+    }
+
+    /* Sets the permutation of the 8 edges outside the slice from its rank */
+    public void setUDEdgePermutation(int rank) {
+        unrankPermutation(rank, ep, FIRST_SLICE_EDGE);
+    }
+
+    /* Returns the rank of the permutation of the slice edges within the slice,
+     * from 0 to 4! - 1. Only meaningful when they are all in the slice. */
+    public int slicePermutation() {
+        int rank = 0;
+        int used = 0;
+        for (int i = 0; i < NUM_SLICE_EDGES; i += 1) {
+            int value = ep[FIRST_SLICE_EDGE + i] - FIRST_SLICE_EDGE;
+            int smallerUnused = value - Integer.bitCount(used & ((1 << value) - 1));
+            rank = rank * (NUM_SLICE_EDGES - i) + smallerUnused;
+            used |= 1 << value;
+        }
+        return rank;
+    }
+
+    /* Sets the permutation of the slice edges within the slice from its rank */
+    public void setSlicePermutation(int rank) {
+        byte[] perm = new byte[NUM_SLICE_EDGES];
+        unrankPermutation(rank, perm, NUM_SLICE_EDGES);
+        for (int i = 0; i < NUM_SLICE_EDGES; i += 1) {
+            ep[FIRST_SLICE_EDGE + i] = (byte) (perm[i] + FIRST_SLICE_EDGE);
+        }
+    }
+
+    /* Returns N choose K, or 0 if K > N */
+    static int binomial(int n, int k) {
+        if (k > n) {
+            return 0;
+        }
+        long result = 1;
+        for (int i = 1; i <= k; i += 1) {
+            result = result * (n - k + i) / i;
+        }
+        return (int) result;
+    }
+
+    /* Returns the Lehmer rank of the first N entries of PERM, a permutation of 0 to N - 1 */
+    static int rankPermutation(byte[] perm, int n) {
+        int rank = 0;
+        int used = 0; // bitmask of the values seen so far
+        for (int i = 0; i < n; i += 1) {
+            int smallerUnused = perm[i] - Integer.bitCount(used & ((1 << perm[i]) - 1));
+            rank = rank * (n - i) + smallerUnused;
+            used |= 1 << perm[i];
+        }
+        return rank;
+    }
+
+    /* Fills the first N entries of PERM with the permutation of the given Lehmer RANK */
+    static void unrankPermutation(int rank, byte[] perm, int n) {
+        int used = 0;
+        for (int i = 0; i < n; i += 1) {
+            int digit = rank / FACTORIALS[n - 1 - i];
+            rank %= FACTORIALS[n - 1 - i];
+            int value = nthUnused(used, digit);
+            perm[i] = (byte) value;
+            used |= 1 << value;
+        }
+    }
+
+    /* Returns whether the first N entries of PERM form an odd permutation */
+    static boolean isOdd(byte[] perm, int n) {
+        int inversions = 0;
+        for (int i = 0; i < n; i += 1) {
+            for (int j = i + 1; j < n; j += 1) {
+                if (perm[i] > perm[j]) {
+                    inversions += 1;
+                }
+            }
+        }
+        return (inversions & 1) == 1;
+    }
+
+    /* Returns the Nth smallest value whose bit is not set in USED */
+    static int nthUnused(int used, int n) {
+        int value = 0;
+        while (true) {
+            if ((used & (1 << value)) == 0) {
+                if (n == 0) {
+                    return value;
+                }
+                n -= 1;
+            }
+            value += 1;
+        }
+    }
+
+    private static int at(String face, int position) {
+        return CubeUtils.faceletIndex(face, position);
+    }
+}
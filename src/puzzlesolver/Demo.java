@@ -19,5 +19,6 @@ public class Demo {
 
         /* Solving the RubiksCube */
         Solver s = new Solver(cube); // solves the cube
+        s.printSolution(); // prints the moves to the solved state
     }
 }
@@ -0,0 +1,93 @@
+package puzzlesolver;
+
+/* The slots and flips of 6 of the 12 edges, starting from edge FIRSTEDGE */
+public class EdgeGroupCoordinate implements Coordinate {
+    public static final int GROUP_SIZE = 6;
+    private static final int NUM_ARRANGEMENTS = 665280; // 12! / 6!
+    private static final int NUM_ORIENTATIONS = 64; // 2^6
+
+    private final int firstEdge;
+    /* DESTINATIONS[NUM_EDGES * m + s] is where move m sends the edge in slot s,
+     * and FLIPS[NUM_EDGES * m + s] is whether it is flipped on the way */
+    private final int[] destinations;
+    private final int[] flips;
+
+    public EdgeGroupCoordinate(int firstEdge) {
+        this.firstEdge = firstEdge;
+        int numMoves = MoveTable.NUM_MOVES;
+        destinations = new int[numMoves * CubieCube.NUM_EDGES];
+        flips = new int[numMoves * CubieCube.NUM_EDGES];
+        for (int m = 0; m < numMoves; m += 1) {
+            for (int s = 0; s < CubieCube.NUM_EDGES; s += 1) {
+                int dest = CubieCube.edgeDestination(m, s);
+                destinations[CubieCube.NUM_EDGES * m + s] = dest;
+                flips[CubieCube.NUM_EDGES * m + s] = CubieCube.edgeFlip(m, dest);
+            }
+        }
+    }
+
+    public int size() {
+        return NUM_ARRANGEMENTS * NUM_ORIENTATIONS;
+    }
+
+    public int encode(CubieCube cube) {
+        long slots = 0; // 4 bits per tracked edge, so encoding allocates nothing
+        int orientation = 0;
+        for (int s = 0; s < CubieCube.NUM_EDGES; s += 1) {
+            int k = cube.ep[s] - firstEdge;
+            if (k >= 0 && k < GROUP_SIZE) {
+                slots |= (long) s << (4 * k);
+                orientation |= cube.eo[s] << k;
+            }
+        }
+        return rank(slots) * NUM_ORIENTATIONS + orientation;
+    }
+
+    /* Allocates nothing, so several threads can run it at once without scratch space */
+    public void successors(int index, int numMoves, int[] out) {
+        long slots = unrank(index / NUM_ORIENTATIONS);
+        int orientation = index % NUM_ORIENTATIONS;
+        for (int m = 0; m < numMoves; m += 1) {
+            long moved = 0;
+            int movedOrientation = orientation;
+            for (int k = 0; k < GROUP_SIZE; k += 1) {
+                int entry = CubieCube.NUM_EDGES * m + ((int) (slots >>> (4 * k)) & 0xF);
+                moved |= (long) destinations[entry] << (4 * k);
+                movedOrientation ^= flips[entry] << k;
+            }
+            out[m] = rank(moved) * NUM_ORIENTATIONS + movedOrientation;
+        }
+    }
+
+    /* Ranks the slots of the tracked edges, packed 4 bits per edge,
+     * as a partial permutation of the 12 slots */
+    private static int rank(long slots) {
+        int rank = 0;
+        int used = 0;
+        for (int k = 0; k < GROUP_SIZE; k += 1) {
+            int slot = (int) (slots >>> (4 * k)) & 0xF;
+            int smallerUnused = slot - Integer.bitCount(used & ((1 << slot) - 1));
+            rank = rank * (CubieCube.NUM_EDGES - k) + smallerUnused;
+            used |= 1 << slot;
+        }
+        return rank;
+    }
+
+    /* Returns the slots of the tracked edges, packed 4 bits per edge as in rank,
+     * for the partial permutation of the given RANK */
+    private static long unrank(int rank) {
+        long digits = 0;
+        for (int k = GROUP_SIZE - 1; k >= 0; k -= 1) {
+            digits |= (long) (rank % (CubieCube.NUM_EDGES - k)) << (4 * k);
+            rank /= (CubieCube.NUM_EDGES - k);
+        }
+        long slots = 0;
+        int used = 0;
+        for (int k = 0; k < GROUP_SIZE; k += 1) {
+            int slot = CubieCube.nthUnused(used, (int) (digits >>> (4 * k)) & 0xF);
+            slots |= (long) slot << (4 * k);
+            used |= 1 << slot;
+        }
+        return slots;
+    }
+}
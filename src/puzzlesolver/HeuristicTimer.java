@@ -0,0 +1,31 @@
+package puzzlesolver;
+
+/* Measures the time a search spends in distToSolved. Reading the clock costs about
+ * as much as a pattern database lookup, so only one call in SAMPLE_INTERVAL is timed
+ * and counted SAMPLE_INTERVAL times. Used by one thread at a time */
+final class HeuristicTimer {
+    static final int SAMPLE_INTERVAL = 64;
+
+    private int calls;
+    private long nanos;
+
+    /* Returns STATE.distToSolved() */
+    int distToSolved(PuzzleState state) {
+        calls += 1;
+        if (calls < SAMPLE_INTERVAL) {
+            return state.distToSolved();
+        }
+        calls = 0;
+        long start = System.nanoTime();
+        int estimate = state.distToSolved();
+        nanos += (System.nanoTime() - start) * SAMPLE_INTERVAL;
+        return estimate;
+    }
+
+    /* Returns the estimated time spent in distToSolved since the last call, and starts over */
+    long takeNanos() {
+        long taken = nanos;
+        nanos = 0;
+        return taken;
+    }
+}
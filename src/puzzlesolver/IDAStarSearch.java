@@ -0,0 +1,138 @@
+package puzzlesolver;
+
+import java.util.Arrays;
+import java.util.List;
+
+/* Solves a PuzzleState with iterative-deepening A*. Runs a series of
+ * depth-first searches, each bounded by a threshold on distance from start
+ * plus distToSolved, so memory grows with the solution depth instead of
+ * with the size of the fringe. A TranspositionTable, cleared every iteration,
+ * skips states already reached in at most as many moves.
+ * The search moves a single MutablePuzzleState (see StateWalker) in place,
+ * so expanding a state allocates nothing.
+ * A SearchBudget (see setBudget) stops a solve that runs too long; the states
+ * it stores are the entries of the TranspositionTable. */
+public class IDAStarSearch implements SearchEngine {
+    private static final int FOUND = -1;
+    private static final int BUDGET_CHECK_INTERVAL = 256;
+
+    private MutablePuzzleState state; // the state at the end of the current path
+    private int[] moves = new int[32]; // moves[i] is the move made at distance i from the initial state
+    private int solutionLength;
+    private final TranspositionTable visited;
+    private SearchListener listener = SearchListener.NONE;
+    private SearchStats stats = new SearchStats();
+    private final HeuristicTimer heuristic = new HeuristicTimer();
+    private long nextProgress; // the number of expansions at which to report progress next
+    private SearchBudget budget = SearchBudget.UNLIMITED;
+
+    /* Uses a TranspositionTable with the default capacity to detect duplicate states */
+    public IDAStarSearch() {
+        this(new TranspositionTable());
+    }
+
+    /* Uses VISITED to detect duplicate states */
+    public IDAStarSearch(TranspositionTable visited) {
+        this.visited = visited;
+    }
+
+    public List<PuzzleState> solve(PuzzleState initialState) {
+        stats = new SearchStats();
+        nextProgress = SearchListener.PROGRESS_INTERVAL;
+        heuristic.takeNanos();
+        try {
+            return iterate(initialState);
+        } finally {
+            stats.heuristicNanos += heuristic.takeNanos();
+            stats.updateElapsed();
+            listener.searchFinished(stats);
+        }
+    }
+
+    public SearchStats stats() {
+        return stats;
+    }
+
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    /* Limits the time and the states of later solves, which throw a
+     * SearchBudgetExceededException when they run out */
+    public void setBudget(SearchBudget budget) {
+        this.budget = budget;
+    }
+
+    /* Runs iterations with growing thresholds until one reaches a solved state */
+    private List<PuzzleState> iterate(PuzzleState initialState) {
+        state = StateWalker.start(initialState);
+        int threshold = initialState.distToSolved();
+        while (true) {
+            long iterationStart = System.nanoTime();
+            long generatedBefore = stats.nodesGenerated;
+            long expandedBefore = stats.nodesExpanded;
+            visited.clear();
+            visited.visit(initialState.hash64(), 0);
+            int nextThreshold = search(0, threshold);
+            listener.iterationFinished(stats.addIteration(threshold, stats.nodesGenerated - generatedBefore,
+                    stats.nodesExpanded - expandedBefore, iterationStart));
+            if (nextThreshold == FOUND) {
+                return StateWalker.replay(initialState, moves, solutionLength);
+            }
+            if (nextThreshold == Integer.MAX_VALUE) {
+                throw new IllegalStateException("No solution exists");
+            }
+            threshold = nextThreshold;
+        }
+    }
+
+    /* Searches below the current state, which is DISTFROMSTART moves from the initial state.
+     * Returns FOUND if a solved state was reached within THRESHOLD, otherwise
+     * the smallest estimate that exceeded THRESHOLD. Leaves the state as it found it */
+    private int search(int distFromStart, int threshold) {
+        int estimate = distFromStart + heuristic.distToSolved(state);
+        if (estimate > threshold) {
+            return estimate;
+        }
+        if (state.isSolved()) {
+            solutionLength = distFromStart;
+            return FOUND;
+        }
+        stats.nodesExpanded += 1;
+        stats.offerFringeSize(distFromStart + 1);
+        if (stats.nodesExpanded % BUDGET_CHECK_INTERVAL == 0) {
+            budget.check(stats.startNanos(), visited.size());
+        }
+        if (stats.nodesExpanded == nextProgress) {
+            nextProgress += SearchListener.PROGRESS_INTERVAL;
+            stats.heuristicNanos += heuristic.takeNanos();
+            stats.updateElapsed();
+            listener.progress(stats);
+        }
+        if (distFromStart == moves.length) {
+            moves = Arrays.copyOf(moves, 2 * moves.length);
+        }
+        int min = Integer.MAX_VALUE;
+        int numMoves = state.numMoves();
+        for (int move = 0; move < numMoves; move += 1) {
+            if (state.isRedundant(move)) {
+                continue; // the same states are reached by a sequence searched elsewhere
+            }
+            state.applyMove(move);
+            stats.nodesGenerated += 1;
+            if (!visited.visit(state.hash64(), distFromStart + 1)) {
+                stats.duplicateHits += 1;
+                state.undoMove();
+                continue; // already reached in at most as many moves
+            }
+            moves[distFromStart] = move;
+            int result = search(distFromStart + 1, threshold);
+            state.undoMove();
+            if (result == FOUND) {
+                return FOUND;
+            }
+            min = Math.min(min, result);
+        }
+        return min;
+    }
+}
@@ -0,0 +1,15 @@
+package puzzlesolver;
+
+/* Thrown by a search that needs more memory than it was given (see OffHeapSearchMemory).
+ * The search is abandoned, but the JVM and the engine remain usable */
+public class MemoryBudgetExceededException extends SearchBudgetExceededException {
+    private static final long serialVersionUID = 1L;
+
+    public MemoryBudgetExceededException(String message) {
+        super(message);
+    }
+
+    public MemoryBudgetExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
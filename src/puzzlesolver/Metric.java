@@ -0,0 +1,20 @@
+package puzzlesolver;
+
+/* How the moves of a RubiksCube are counted. In the quarter-turn metric a half
+ * turn takes two moves; in the half-turn metric it is a single move */
+public enum Metric {
+    QUARTER_TURN(MoveTable.NUM_QUARTER_TURNS),
+    HALF_TURN(MoveTable.NUM_MOVES);
+
+    private final int numMoves;
+
+    Metric(int numMoves) {
+        this.numMoves = numMoves;
+    }
+
+    /* Returns the number of moves in the metric, which are the moves of MoveTable
+     * with ids 0 to numMoves() - 1 */
+    public int numMoves() {
+        return numMoves;
+    }
+}
@@ -0,0 +1,181 @@
+package puzzlesolver;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/* Precomputed facelet permutations for the moves of a RubiksCube.
+ * Each move has an integer id; the permutations are computed once
+ * when the class is loaded, so applying a move is a single indexed pass. */
+public class MoveTable {
+    /* The quarter turns come first, with ids 2 * face (clockwise) and 2 * face + 1
+     * (counterclockwise) for each face index in CubeUtils.FACES. The half turns
+     * follow, with ids NUM_QUARTER_TURNS + face */
+    public static final int NUM_QUARTER_TURNS = 12;
+    public static final int NUM_MOVES = 18;
+
+    /* Stands in for a move that was not made, e.g. before the first move of a search */
+    public static final int NO_MOVE = -1;
+
+    /* MOVES[id] is the face and direction of the move with the given id */
+    private static final Move[] MOVES = new Move[NUM_MOVES];
+
+    /* PERMUTATIONS[id][i] is the facelet that moves into facelet i */
+    private static final int[][] PERMUTATIONS = new int[NUM_MOVES][54];
+
+    /* CYCLES[id] lists the cycles of PERMUTATIONS[id] of more than one facelet,
+     * each in the order a, PERMUTATIONS[id][a], PERMUTATIONS[id][PERMUTATIONS[id][a]], ... */
+    private static final int[][][] CYCLES = new int[NUM_MOVES][][];
+
+    static {
+        HashMap<Integer, Move> moveMap = new HashMap<>();
+        CubeUtils.populateMoveMap(moveMap);
+        HashMap<String, FaceSequence> faceMap = new HashMap<>();
+        CubeUtils.populateFaceMap(faceMap);
+        HashMap<String, List<CubePosition>> adjCubePositions = new HashMap<>();
+        CubeUtils.populateAdjCubePositions(adjCubePositions, faceMap);
+        PieceSequence ps = new PieceSequence();
+        for (int i = 1; i <= NUM_MOVES; i += 1) {
+            Move move = moveMap.get(i);
+            MOVES[i - 1] = move;
+            if (move.direction.equals("180")) { // two clockwise quarter turns, which come earlier
+                int[] quarterTurn = PERMUTATIONS[2 * CubeUtils.faceIndex(move.face)];
+                for (int j = 0; j < quarterTurn.length; j += 1) {
+                    PERMUTATIONS[i - 1][j] = quarterTurn[quarterTurn[j]];
+                }
+            } else {
+                fillPermutation(PERMUTATIONS[i - 1], move, ps, faceMap, adjCubePositions.get(move.face));
+            }
+            CYCLES[i - 1] = findCycles(PERMUTATIONS[i - 1]);
+        }
+    }
+
+    private MoveTable() {
+    }
+
+    /* Sets DST to the state reached by applying MOVE to SRC */
+    public static void apply(int move, byte[] src, byte[] dst) {
+        int[] perm = PERMUTATIONS[move];
+        for (int i = 0; i < perm.length; i += 1) {
+            dst[i] = src[perm[i]];
+        }
+    }
+
+    /* Applies MOVE to FACELETS, touching only the facelets it moves */
+    public static void applyInPlace(int move, byte[] facelets) {
+        for (int[] cycle: CYCLES[move]) {
+            byte first = facelets[cycle[0]];
+            for (int i = 0; i < cycle.length - 1; i += 1) {
+                facelets[cycle[i]] = facelets[cycle[i + 1]];
+            }
+            facelets[cycle[cycle.length - 1]] = first;
+        }
+    }
+
+    /* Returns the id of the move that rotates FACE in DIRECTION */
+    public static int moveId(String face, String direction) {
+        int id = 2 * CubeUtils.faceIndex(face);
+        if (direction.equals("ccw")) {
+            return id + 1;
+        } else if (direction.equals("cw")) {
+            return id;
+        } else if (direction.equals("180")) {
+            return NUM_QUARTER_TURNS + CubeUtils.faceIndex(face);
+        }
+        throw new IllegalArgumentException("Unknown direction: " + direction);
+    }
+
+    /* Returns the id of the move that undoes MOVE */
+    public static int inverse(int move) {
+        return isHalfTurn(move) ? move : move ^ 1;
+    }
+
+    /* Returns the index in CubeUtils.FACES of the face turned by MOVE */
+    public static int faceOf(int move) {
+        return isHalfTurn(move) ? move - NUM_QUARTER_TURNS : move >> 1;
+    }
+
+    /* Returns whether MOVE turns its face by 180 degrees */
+    public static boolean isHalfTurn(int move) {
+        return move >= NUM_QUARTER_TURNS;
+    }
+
+    /* Returns whether MOVE, made right after BEFOREPREVIOUS and then PREVIOUS (NO_MOVE if
+     * fewer moves were made), can be skipped in a search counting moves in METRIC because
+     * a sequence at most as long that reaches the same state is searched instead.
+     * In the half-turn metric any two turns of one face make one turn or none. In the
+     * quarter-turn metric this skips undoing the previous move, a third quarter turn of
+     * the same face and the counterclockwise form of a half turn. In both, turns of
+     * opposite faces (which commute) are skipped unless the face with the smaller index comes first */
+    public static boolean redundant(Metric metric, int beforePrevious, int previous, int move) {
+        if (previous == NO_MOVE) {
+            return false;
+        }
+        int face = faceOf(move);
+        int previousFace = faceOf(previous);
+        if (face == previousFace) {
+            if (metric == Metric.HALF_TURN || move != previous) {
+                return true;
+            }
+            return (move & 1) == 1 || beforePrevious == previous;
+        }
+        return face == (previousFace ^ 1) && face < previousFace;
+    }
+
+    /* Returns the face and direction of MOVE */
+    public static Move getMove(int move) {
+        return MOVES[move];
+    }
+
+    /* Splits PERM into its cycles, leaving out facelets that do not move */
+    private static int[][] findCycles(int[] perm) {
+        List<int[]> cycles = new ArrayList<>();
+        boolean[] seen = new boolean[perm.length];
+        for (int start = 0; start < perm.length; start += 1) {
+            if (seen[start] || perm[start] == start) {
+                continue;
+            }
+            List<Integer> cycle = new ArrayList<>();
+            for (int i = start; !seen[i]; i = perm[i]) {
+                seen[i] = true;
+                cycle.add(i);
+            }
+            int[] cycleArr = new int[cycle.size()];
+            for (int i = 0; i < cycleArr.length; i += 1) {
+                cycleArr[i] = cycle.get(i);
+            }
+            cycles.add(cycleArr);
+        }
+        return cycles.toArray(new int[0][]);
+    }
+
+    /* Traces every sticker moved by MOVE through the PieceSequence and FaceSequence rules */
+    private static void fillPermutation(int[] perm, Move move, PieceSequence ps,
+                                        HashMap<String, FaceSequence> faceMap, List<CubePosition> adjPositions) {
+        String face = move.face;
+        String direction = move.direction;
+        for (int i = 0; i < perm.length; i += 1) { // unmoved facelets stay in place
+            perm[i] = i;
+        }
+        for (int i = 1; i <= 8; i += 1) { // face values
+            int nextPos;
+            if (i <= 4) { // edge
+                nextPos = ps.nextEdge(face, face, i, direction);
+            } else { // corner
+                nextPos = ps.nextCorner(face, face, i, direction);
+            }
+            perm[CubeUtils.faceletIndex(face, nextPos)] = CubeUtils.faceletIndex(face, i);
+        }
+        for (CubePosition cp: adjPositions) { // adjacent face values
+            int pos = cp.position;
+            String nextFace = faceMap.get(face).nextFace(cp.face, direction);
+            int nextPos;
+            if (pos <= 4) {
+                nextPos = ps.nextEdge(face, nextFace, pos, direction);
+            } else {
+                nextPos = ps.nextCorner(face, nextFace, pos, direction);
+            }
+            perm[CubeUtils.faceletIndex(nextFace, nextPos)] = CubeUtils.faceletIndex(cp.face, pos);
+        }
+    }
+}
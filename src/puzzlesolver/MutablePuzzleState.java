@@ -0,0 +1,43 @@
+package puzzlesolver;
+
+/* A PuzzleState that a search can walk in place: instead of asking for copies
+ * of the adjacent states, the search applies a move, looks at the result through
+ * distToSolved, isSolved and hash64, and undoes the move again.
+ * The moves of a state are numbered from 0 to numMoves() - 1 */
+public interface MutablePuzzleState extends PuzzleState {
+    /* Returns the number of moves that can be applied to the current state */
+    int numMoves();
+
+    /* Applies the move with id MOVE to this state */
+    void applyMove(int move);
+
+    /* Undoes the most recent move that has not been undone yet */
+    void undoMove();
+
+    /* Returns whether a search may skip MOVE given the moves applied since this state was
+     * created or copied, because every state it leads to is also reached by another
+     * sequence of moves that is at most as long. The default never skips */
+    default boolean isRedundant(int move) {
+        return false;
+    }
+
+    /* Returns the number of longs that pack writes, or 0 if the state cannot be packed.
+     * Packed states let a search keep states in primitive arrays instead of objects */
+    default int packedLength() {
+        return 0;
+    }
+
+    /* Writes the current state to DST, starting at OFFSET */
+    default void pack(long[] dst, int offset) {
+        throw new UnsupportedOperationException();
+    }
+
+    /* Sets the current state to the one written to SRC at OFFSET by pack,
+     * with no moves to undo */
+    default void unpack(long[] src, int offset) {
+        throw new UnsupportedOperationException();
+    }
+
+    /* Returns a copy of the current state that can be moved independently */
+    MutablePuzzleState copy();
+}
@@ -0,0 +1,52 @@
+package puzzlesolver;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/* A fixed-size array of 4-bit values, two per byte */
+public class NibbleArray {
+    private final ByteBuffer data;
+    private final int size;
+
+    /* Creates an array of SIZE entries, each set to FILL */
+    public NibbleArray(int size, int fill) {
+        this.size = size;
+        data = ByteBuffer.allocate(numBytes(size));
+        Arrays.fill(data.array(), (byte) ((fill << 4) | fill));
+    }
+
+    /* Wraps SIZE entries stored in DATA, such as a read-only mapped file */
+    public NibbleArray(ByteBuffer data, int size) {
+        if (data.capacity() != numBytes(size)) {
+            throw new IllegalArgumentException("Expected " + numBytes(size) + " bytes, got " + data.capacity());
+        }
+        this.size = size;
+        this.data = data;
+    }
+
+    /* Returns the number of bytes needed to store SIZE entries */
+    public static int numBytes(int size) {
+        return (size + 1) / 2;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int get(int index) {
+        return (data.get(index >> 1) >> ((index & 1) << 2)) & 0xF;
+    }
+
+    public void set(int index, int value) {
+        int shift = (index & 1) << 2;
+        int i = index >> 1;
+        data.put(i, (byte) ((data.get(i) & ~(0xF << shift)) | (value << shift)));
+    }
+
+    /* Returns a view of the packed entries, positioned at the start */
+    public ByteBuffer buffer() {
+        ByteBuffer view = data.duplicate();
+        view.clear();
+        return view;
+    }
+}
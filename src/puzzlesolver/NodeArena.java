@@ -0,0 +1,106 @@
+package puzzlesolver;
+
+import java.util.Arrays;
+
+/* A NodeStore in parallel primitive arrays on the heap instead of one object
+ * per node. A node costs 8 * packedLength + 7 bytes, against well over a hundred
+ * for a node object holding a RubiksCube. */
+final class NodeArena implements NodeStore {
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    private final int packedLength;
+    private long[] states;
+    private short[] distances;
+    private int[] parents;
+    private byte[] moves; // read back with & 0xFF, so move ids up to 255 fit
+    private int size;
+
+    NodeArena(int packedLength) {
+        this.packedLength = packedLength;
+        states = new long[INITIAL_CAPACITY * packedLength];
+        distances = new short[INITIAL_CAPACITY];
+        parents = new int[INITIAL_CAPACITY];
+        moves = new byte[INITIAL_CAPACITY];
+    }
+
+    public int add(MutablePuzzleState state, int distFromStart, int parent, int move) {
+        if (size == parents.length) {
+            grow();
+        }
+        state.pack(states, size * packedLength);
+        distances[size] = (short) distFromStart;
+        parents[size] = parent;
+        moves[size] = (byte) move;
+        size += 1;
+        return size - 1;
+    }
+
+    /* Adds a node for the state that PACKED holds from offset 0, see add */
+    int addPacked(long[] packed, int distFromStart, int parent, int move) {
+        if (size == parents.length) {
+            grow();
+        }
+        System.arraycopy(packed, 0, states, size * packedLength, packedLength);
+        distances[size] = (short) distFromStart;
+        parents[size] = parent;
+        moves[size] = (byte) move;
+        size += 1;
+        return size - 1;
+    }
+
+    /* Returns whether the state of NODE is the one PACKED holds from offset 0 */
+    boolean hasPackedState(int node, long[] packed) {
+        int offset = node * packedLength;
+        for (int i = 0; i < packedLength; i += 1) {
+            if (states[offset + i] != packed[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* Returns hashPacked of the state of NODE */
+    long packedHash(int node) {
+        return hashPacked(states, node * packedLength, packedLength);
+    }
+
+    /* Mixes the LENGTH longs of SRC from OFFSET into a hash */
+    static long hashPacked(long[] src, int offset, int length) {
+        long hash = 0;
+        for (int i = 0; i < length; i += 1) {
+            hash = (hash ^ src[offset + i]) * 0x9E3779B97F4A7C15L;
+            hash ^= hash >>> 29;
+        }
+        return hash;
+    }
+
+    public void load(int node, MutablePuzzleState state) {
+        state.unpack(states, node * packedLength);
+    }
+
+    public int distFromStart(int node) {
+        return distances[node];
+    }
+
+    public int parent(int node) {
+        return parents[node];
+    }
+
+    public int move(int node) {
+        return moves[node] & 0xFF;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /* Doubles the capacity. Fails with OutOfMemoryError like any other collection
+     * once the heap cannot hold the arrays */
+    private void grow() {
+        int capacity = 2 * parents.length;
+        states = Arrays.copyOf(states, capacity * packedLength);
+        distances = Arrays.copyOf(distances, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+        moves = Arrays.copyOf(moves, capacity);
+    }
+}
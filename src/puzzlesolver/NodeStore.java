@@ -0,0 +1,33 @@
+package puzzlesolver;
+
+/* The nodes of a best-first search. A node is an index and holds its packed state
+ * (see MutablePuzzleState.pack), its distance from the start, the node it was
+ * reached from and the move that reached it */
+interface NodeStore {
+    int NO_PARENT = -1;
+
+    /* Adds a node for the current state of STATE, reached from node PARENT by MOVE,
+     * DISTFROMSTART moves from the start. Returns the new node */
+    int add(MutablePuzzleState state, int distFromStart, int parent, int move);
+
+    /* Sets STATE to the state of NODE */
+    void load(int node, MutablePuzzleState state);
+
+    int distFromStart(int node);
+
+    int parent(int node);
+
+    int move(int node);
+
+    int size();
+
+    /* Returns the moves from the first node to NODE */
+    default int[] pathTo(int node) {
+        int[] path = new int[distFromStart(node)];
+        for (int i = path.length - 1; i >= 0; i -= 1) {
+            path[i] = move(node);
+            node = parent(node);
+        }
+        return path;
+    }
+}
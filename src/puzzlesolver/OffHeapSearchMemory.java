@@ -0,0 +1,275 @@
+package puzzlesolver;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/* Memory outside the Java heap for AStarSearch. The node arena and the closed set
+ * of a search live in direct ByteBuffers, or in a memory-mapped scratch file that
+ * the operating system can page out, so a search can hold far more nodes than the
+ * heap and adds nothing to the work of the garbage collector.
+ * Memory is handed out in chunks of equal size until BUDGET bytes are in use; a
+ * search that needs more fails with a MemoryBudgetExceededException. Chunks are
+ * kept and reused by later searches until the memory is closed.
+ * Direct buffers also count against the JVM's -XX:MaxDirectMemorySize, which
+ * defaults to the maximum heap size. */
+public class OffHeapSearchMemory implements AutoCloseable {
+    private static final int MAX_CHUNK_BYTES = 1 << 26;
+    private static final int MIN_CHUNKS = 8;
+    private static final int CLOSED_SET_SHARE_PERCENT = 40; // of the budget, the rest is for nodes
+
+    private final long budget;
+    private final int chunkBytes; // a power of two
+    private final File scratchFile; // null for direct buffers
+    private FileChannel scratch;
+    private final List<ByteBuffer> chunks = new ArrayList<>(); // every chunk allocated so far
+    private int chunksInUse; // by the current search; the rest are free for reuse
+
+    /* Uses direct ByteBuffers, at most BUDGET bytes of them */
+    public OffHeapSearchMemory(long budget) {
+        this(budget, null);
+    }
+
+    /* Maps at most BUDGET bytes of SCRATCHFILE, which is created if needed
+     * and deleted on close. A null SCRATCHFILE uses direct ByteBuffers */
+    public OffHeapSearchMemory(long budget, File scratchFile) {
+        if (budget < MIN_CHUNKS) {
+            throw new IllegalArgumentException("Budget too small: " + budget);
+        }
+        this.budget = budget;
+        this.chunkBytes = (int) Math.min(MAX_CHUNK_BYTES, Long.highestOneBit(budget / MIN_CHUNKS));
+        this.scratchFile = scratchFile;
+    }
+
+    public long budget() {
+        return budget;
+    }
+
+    /* Returns the number of bytes allocated so far, by this search or earlier ones */
+    public long allocated() {
+        return (long) chunks.size() * chunkBytes;
+    }
+
+    /* Releases the scratch file. Direct buffers are freed once they are garbage collected */
+    @Override
+    public void close() throws IOException {
+        chunks.clear();
+        chunksInUse = 0;
+        if (scratch != null) {
+            scratch.close();
+            scratch = null;
+            scratchFile.delete();
+        }
+    }
+
+    /* Gives every chunk back for a new search */
+    void startSearch() {
+        chunksInUse = 0;
+    }
+
+    /* Returns a closed set taking its share of the budget */
+    ClosedSet newClosedSet() {
+        return new OffHeapClosedSet();
+    }
+
+    /* Returns an empty node store for states that pack into PACKEDLENGTH longs */
+    NodeStore newNodeStore(int packedLength) {
+        return new OffHeapNodeStore(packedLength);
+    }
+
+    /* Returns a chunk of chunkBytes bytes in native byte order, zeroed if ZEROED */
+    private ByteBuffer takeChunk(boolean zeroed) {
+        if (chunksInUse < chunks.size()) {
+            ByteBuffer chunk = chunks.get(chunksInUse);
+            chunksInUse += 1;
+            if (zeroed) {
+                for (int i = 0; i < chunkBytes; i += Long.BYTES) {
+                    chunk.putLong(i, 0);
+                }
+            }
+            return chunk;
+        }
+        if (allocated() + chunkBytes > budget) {
+            throw new MemoryBudgetExceededException("Search memory budget of " + budget + " bytes is used up");
+        }
+        ByteBuffer chunk;
+        try {
+            if (scratchFile == null) {
+                chunk = ByteBuffer.allocateDirect(chunkBytes);
+            } else {
+                if (scratch == null) {
+                    scratch = FileChannel.open(scratchFile.toPath(), StandardOpenOption.CREATE,
+                            StandardOpenOption.READ, StandardOpenOption.WRITE);
+                }
+                chunk = scratch.map(FileChannel.MapMode.READ_WRITE, allocated(), chunkBytes);
+            }
+        } catch (OutOfMemoryError e) {
+            throw new MemoryBudgetExceededException("Could not allocate " + chunkBytes
+                    + " bytes of direct memory; raise -XX:MaxDirectMemorySize or lower the budget", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map " + scratchFile, e);
+        }
+        chunk.order(ByteOrder.nativeOrder());
+        chunks.add(chunk);
+        chunksInUse += 1;
+        return chunk; // new direct buffers and new regions of a file start out zeroed
+    }
+
+    /* A ClosedSet that probes like a TranspositionTable with ReplacementPolicy.SHALLOWER,
+     * with its keys and distances in chunks */
+    private class OffHeapClosedSet implements ClosedSet {
+        private static final int MAX_PROBES = 8;
+        private static final long EMPTY = 0;
+        private static final long ZERO_KEY = 0x9E3779B97F4A7C15L; // stands in for a hash of 0
+
+        private final ByteBuffer[] keyChunks;
+        private final ByteBuffer[] distanceChunks;
+        private final int keysPerChunkBits;
+        private final long mask;
+
+        OffHeapClosedSet() {
+            long share = budget / 100 * CLOSED_SET_SHARE_PERCENT;
+            long slots = Long.highestOneBit(Math.max(share / (Long.BYTES + 1), MAX_PROBES));
+            keysPerChunkBits = Integer.numberOfTrailingZeros(chunkBytes / Long.BYTES);
+            int numKeyChunks = (int) Math.max(1, (slots * Long.BYTES) / chunkBytes);
+            int numDistanceChunks = (int) Math.max(1, slots / chunkBytes);
+            slots = Math.min(slots, (long) numKeyChunks << keysPerChunkBits);
+            mask = slots - 1;
+            keyChunks = new ByteBuffer[numKeyChunks];
+            distanceChunks = new ByteBuffer[numDistanceChunks];
+            for (int i = 0; i < numKeyChunks; i += 1) {
+                keyChunks[i] = takeChunk(true);
+            }
+            for (int i = 0; i < numDistanceChunks; i += 1) {
+                distanceChunks[i] = takeChunk(false); // only read where a key is set
+            }
+        }
+
+        private long key(long slot) {
+            return keyChunks[(int) (slot >>> keysPerChunkBits)]
+                    .getLong((int) (slot & ((1 << keysPerChunkBits) - 1)) * Long.BYTES);
+        }
+
+        private void setKey(long slot, long key) {
+            keyChunks[(int) (slot >>> keysPerChunkBits)]
+                    .putLong((int) (slot & ((1 << keysPerChunkBits) - 1)) * Long.BYTES, key);
+        }
+
+        private byte distance(long slot) {
+            return distanceChunks[(int) (slot / chunkBytes)].get((int) (slot % chunkBytes));
+        }
+
+        private void setDistance(long slot, byte dist) {
+            distanceChunks[(int) (slot / chunkBytes)].put((int) (slot % chunkBytes), dist);
+        }
+
+        public boolean visit(long hash, int distFromStart) {
+            long key = hash == EMPTY ? ZERO_KEY : hash;
+            byte dist = (byte) Math.min(distFromStart, Byte.MAX_VALUE);
+            long start = (key ^ (key >>> 32)) & mask;
+            long victim = start;
+            for (int probe = 0; probe < MAX_PROBES; probe += 1) {
+                long i = (start + probe) & mask;
+                long k = key(i);
+                if (k == key) {
+                    if (distance(i) <= dist) {
+                        return false;
+                    }
+                    setDistance(i, dist);
+                    return true;
+                }
+                if (k == EMPTY) {
+                    setKey(i, key);
+                    setDistance(i, dist);
+                    return true;
+                }
+                if (distance(i) > distance(victim)) {
+                    victim = i;
+                }
+            }
+            if (distance(victim) > dist) {
+                setKey(victim, key);
+                setDistance(victim, dist);
+            }
+            return true;
+        }
+    }
+
+    /* A NodeStore keeping each node as a record of 8 * packedLength + 8 bytes in chunks:
+     * the packed state, the parent, the distance from the start and the move */
+    private class OffHeapNodeStore implements NodeStore {
+        private final int packedLength;
+        private final int recordBytes;
+        private final int recordsPerChunk;
+        private final List<ByteBuffer> nodeChunks = new ArrayList<>();
+        private final long[] scratch; // one packed state
+        private int size;
+
+        OffHeapNodeStore(int packedLength) {
+            this.packedLength = packedLength;
+            recordBytes = Long.BYTES * packedLength + 8;
+            recordsPerChunk = chunkBytes / recordBytes;
+            scratch = new long[packedLength];
+        }
+
+        private ByteBuffer chunkOf(int node) {
+            return nodeChunks.get(node / recordsPerChunk);
+        }
+
+        private int offsetOf(int node) {
+            return (node % recordsPerChunk) * recordBytes;
+        }
+
+        public int add(MutablePuzzleState state, int distFromStart, int parent, int move) {
+            if (size == Integer.MAX_VALUE) {
+                throw new MemoryBudgetExceededException("Too many nodes for int indices");
+            }
+            if (size % recordsPerChunk == 0) {
+                nodeChunks.add(takeChunk(false));
+            }
+            ByteBuffer chunk = chunkOf(size);
+            int offset = offsetOf(size);
+            state.pack(scratch, 0);
+            for (int i = 0; i < packedLength; i += 1) {
+                chunk.putLong(offset + Long.BYTES * i, scratch[i]);
+            }
+            offset += Long.BYTES * packedLength;
+            chunk.putInt(offset, parent);
+            chunk.putShort(offset + 4, (short) distFromStart);
+            chunk.put(offset + 6, (byte) move);
+            size += 1;
+            return size - 1;
+        }
+
+        public void load(int node, MutablePuzzleState state) {
+            ByteBuffer chunk = chunkOf(node);
+            int offset = offsetOf(node);
+            for (int i = 0; i < packedLength; i += 1) {
+                scratch[i] = chunk.getLong(offset + Long.BYTES * i);
+            }
+            state.unpack(scratch, 0);
+        }
+
+        public int distFromStart(int node) {
+            return chunkOf(node).getShort(offsetOf(node) + Long.BYTES * packedLength + 4);
+        }
+
+        public int parent(int node) {
+            return chunkOf(node).getInt(offsetOf(node) + Long.BYTES * packedLength);
+        }
+
+        public int move(int node) {
+            return chunkOf(node).get(offsetOf(node) + Long.BYTES * packedLength + 6) & 0xFF;
+        }
+
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package puzzlesolver;
+
+import java.util.Arrays;
+
+/* An open-addressing hash set of the nodes of a NodeArena, keyed by their packed
+ * states, that finds the node holding a given state. Unlike a TranspositionTable
+ * it compares whole packed states, so it never mistakes one state for another */
+final class PackedStateIndex {
+    private static final int EMPTY = -1;
+    private static final int INITIAL_SLOTS = 1 << 10;
+
+    private final NodeArena arena;
+    private int[] slots; // node indices, EMPTY where there is none
+    private int mask;
+    private int size;
+
+    PackedStateIndex(NodeArena arena) {
+        this.arena = arena;
+        slots = newSlots(INITIAL_SLOTS);
+        mask = INITIAL_SLOTS - 1;
+    }
+
+    /* Returns the node whose state PACKED holds, hashed to HASH by NodeArena.hashPacked,
+     * or NodeStore.NO_PARENT if there is none */
+    int find(long[] packed, long hash) {
+        for (int i = (int) hash & mask; slots[i] != EMPTY; i = (i + 1) & mask) {
+            if (arena.hasPackedState(slots[i], packed)) {
+                return slots[i];
+            }
+        }
+        return NodeStore.NO_PARENT;
+    }
+
+    /* Adds NODE, whose packed state hashes to HASH. The state must not be in the index yet */
+    void add(int node, long hash) {
+        if (2 * (size + 1) > slots.length) {
+            grow();
+        }
+        insert(node, hash);
+        size += 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void insert(int node, long hash) {
+        int i = (int) hash & mask;
+        while (slots[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        slots[i] = node;
+    }
+
+    /* Doubles the number of slots, keeping the load factor at most a half */
+    private void grow() {
+        int[] old = slots;
+        slots = newSlots(2 * old.length);
+        mask = slots.length - 1;
+        for (int node: old) {
+            if (node != EMPTY) {
+                insert(node, arena.packedHash(node));
+            }
+        }
+    }
+
+    private static int[] newSlots(int numSlots) {
+        int[] newSlots = new int[numSlots];
+        Arrays.fill(newSlots, EMPTY);
+        return newSlots;
+    }
+}
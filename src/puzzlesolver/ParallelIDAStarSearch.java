@@ -0,0 +1,324 @@
+package puzzlesolver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/* Iterative-deepening A* that splits every iteration across a ForkJoinPool.
+ * The first SPLIT_DEPTH levels below the initial state are forked as separate
+ * tasks, which idle workers steal; below that each task searches depth-first on
+ * its own. Workers share the next threshold through an atomic minimum, and the
+ * first worker to reach a solved state tells the others to stop.
+ * Tasks carry the moves from the initial state, and every worker thread walks
+ * them with its own MutablePuzzleState (see StateWalker).
+ * Workers check the SearchBudget (see setBudget) as they search, against the
+ * entries of their own TranspositionTable, and the first to run out stops all. */
+public class ParallelIDAStarSearch implements SearchEngine {
+    private static final int SPLIT_DEPTH = 2;
+    private static final int FOUND = -1;
+    private static final int CANCELLED = -2;
+    private static final int BUDGET_CHECK_INTERVAL = 256;
+
+    private final ForkJoinPool pool;
+    private final int tableCapacity;
+
+    /* Per-thread state and duplicate detection, cleared at the start of every iteration.
+     * Workers outlive a solve, so their tables are told apart by ITERATION, which
+     * counts the iterations of every solve and never goes back */
+    private final ThreadLocal<Worker> workers;
+
+    private PuzzleState initialState;
+    private int numSolves; // tells workers when to start their state over from a new initial state
+    private volatile int iteration;
+    private AtomicInteger nextThreshold;
+    private AtomicReference<List<PuzzleState>> solution;
+    private AtomicReference<SearchBudgetExceededException> exhausted; // set by the first worker out of budget
+    private SearchBudget budget = SearchBudget.UNLIMITED;
+    private SearchListener listener = SearchListener.NONE;
+    private SearchStats stats = new SearchStats();
+
+    /* Totals of the current solve, which workers add their own counts to after every task */
+    private LongAdder numGenerated;
+    private LongAdder numExpanded;
+    private LongAdder numDuplicates;
+    private LongAdder heuristicNanos;
+    private LongAccumulator peakPathLength;
+
+    /* Searches on the common ForkJoinPool */
+    public ParallelIDAStarSearch() {
+        this(ForkJoinPool.commonPool(), TranspositionTable.DEFAULT_CAPACITY);
+    }
+
+    /* Searches on POOL, giving each worker thread a TranspositionTable of TABLECAPACITY entries */
+    public ParallelIDAStarSearch(ForkJoinPool pool, int tableCapacity) {
+        this.pool = pool;
+        this.tableCapacity = tableCapacity;
+        workers = ThreadLocal.withInitial(Worker::new);
+    }
+
+    public List<PuzzleState> solve(PuzzleState initialState) {
+        this.initialState = initialState;
+        numSolves += 1;
+        stats = new SearchStats();
+        numGenerated = new LongAdder();
+        numExpanded = new LongAdder();
+        numDuplicates = new LongAdder();
+        heuristicNanos = new LongAdder();
+        peakPathLength = new LongAccumulator(Math::max, 0);
+        try {
+            return iterate(initialState);
+        } finally {
+            collectStats();
+            stats.updateElapsed();
+            listener.searchFinished(stats);
+        }
+    }
+
+    public SearchStats stats() {
+        return stats;
+    }
+
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    /* Limits the time and the states of later solves, which throw a
+     * SearchBudgetExceededException when they run out */
+    public void setBudget(SearchBudget budget) {
+        this.budget = budget;
+    }
+
+    /* Runs iterations with growing thresholds until one reaches a solved state */
+    private List<PuzzleState> iterate(PuzzleState initialState) {
+        solution = new AtomicReference<>();
+        exhausted = new AtomicReference<>();
+        int threshold = initialState.distToSolved();
+        iteration += 1;
+        while (true) {
+            long iterationStart = System.nanoTime();
+            long generatedBefore = stats.nodesGenerated;
+            long expandedBefore = stats.nodesExpanded;
+            nextThreshold = new AtomicInteger(Integer.MAX_VALUE);
+            pool.invoke(new SubtreeTask(new int[0], 0, threshold));
+            collectStats();
+            listener.iterationFinished(stats.addIteration(threshold, stats.nodesGenerated - generatedBefore,
+                    stats.nodesExpanded - expandedBefore, iterationStart));
+            if (solution.get() != null) {
+                return solution.get();
+            }
+            if (exhausted.get() != null) {
+                throw exhausted.get();
+            }
+            if (nextThreshold.get() == Integer.MAX_VALUE) {
+                throw new IllegalStateException("No solution exists");
+            }
+            threshold = nextThreshold.get();
+            iteration += 1;
+        }
+    }
+
+    /* Copies the totals the workers have added so far into STATS */
+    private void collectStats() {
+        stats.nodesGenerated = numGenerated.sum();
+        stats.nodesExpanded = numExpanded.sum();
+        stats.duplicateHits = numDuplicates.sum();
+        stats.heuristicNanos = heuristicNanos.sum();
+        stats.offerFringeSize(peakPathLength.get());
+    }
+
+    /* Lowers nextThreshold to ESTIMATE if it is smaller */
+    private void offerThreshold(int estimate) {
+        int current = nextThreshold.get();
+        while (estimate < current && !nextThreshold.compareAndSet(current, estimate)) {
+            current = nextThreshold.get();
+        }
+    }
+
+    /* Searches below the state reached by PATH. Forks a task per move while
+     * PATH is shorter than SPLIT_DEPTH, otherwise searches depth-first */
+    private class SubtreeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] path;
+        private final long parentHash; // of the state before the last move of PATH
+        private final int threshold;
+
+        SubtreeTask(int[] path, long parentHash, int threshold) {
+            this.path = path;
+            this.parentHash = parentHash;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            Worker worker = workers.get();
+            MutablePuzzleState state = worker.walkTo(path);
+            if (path.length >= SPLIT_DEPTH) {
+                worker.search(path.length, threshold);
+                worker.walkBack(path.length);
+                worker.addCounts();
+                return;
+            }
+            List<SubtreeTask> subtasks = split(worker, state);
+            worker.walkBack(path.length); // subtasks run on this thread expect the initial state
+            worker.addCounts();
+            invokeAll(subtasks);
+        }
+
+        /* Returns a task for every move from STATE, which is at the end of PATH,
+         * except redundant moves and the move back to the previous state */
+        private List<SubtreeTask> split(Worker worker, MutablePuzzleState state) {
+            List<SubtreeTask> subtasks = new ArrayList<>();
+            int distFromStart = path.length;
+            int estimate = distFromStart + worker.heuristic.distToSolved(state);
+            if (estimate > threshold) {
+                offerThreshold(estimate);
+                return subtasks;
+            }
+            if (state.isSolved()) {
+                solution.compareAndSet(null, StateWalker.replay(initialState, path, path.length));
+                return subtasks;
+            }
+            worker.expanded += 1;
+            worker.peakDepth = Math.max(worker.peakDepth, distFromStart + 1);
+            long hash = state.hash64();
+            int numMoves = state.numMoves();
+            for (int move = 0; move < numMoves; move += 1) {
+                if (state.isRedundant(move)) {
+                    continue;
+                }
+                state.applyMove(move);
+                boolean undoesPrevious = distFromStart > 0 && state.hash64() == parentHash;
+                state.undoMove();
+                if (undoesPrevious) {
+                    continue;
+                }
+                worker.generated += 1;
+                int[] childPath = Arrays.copyOf(path, distFromStart + 1);
+                childPath[distFromStart] = move;
+                subtasks.add(new SubtreeTask(childPath, hash, threshold));
+            }
+            return subtasks;
+        }
+    }
+
+    /* The depth-first search run by one worker thread */
+    private class Worker {
+        private final TranspositionTable visited = new TranspositionTable(tableCapacity,
+                TranspositionTable.ReplacementPolicy.SHALLOWER);
+        private int tableIteration;
+        private int stateSolve; // the value of numSolves when STATE was started
+        private MutablePuzzleState state; // at the initial state between tasks
+        private int[] moves = new int[32]; // moves[i] is the move made at distance i from the initial state
+        private final HeuristicTimer heuristic = new HeuristicTimer();
+
+        /* Counts of the current task */
+        private long generated;
+        private long expanded;
+        private long duplicates;
+        private int peakDepth;
+        private int budgetCountdown = BUDGET_CHECK_INTERVAL; // expansions until the next budget check
+
+        /* Moves STATE from the initial state along PATH and returns it */
+        MutablePuzzleState walkTo(int[] path) {
+            if (state == null || stateSolve != numSolves) {
+                stateSolve = numSolves;
+                state = StateWalker.start(initialState);
+            }
+            for (int i = 0; i < path.length; i += 1) {
+                state.applyMove(path[i]);
+                moves[i] = path[i];
+            }
+            return state;
+        }
+
+        /* Adds the counts of the current task to the totals of the solve */
+        void addCounts() {
+            numGenerated.add(generated);
+            numExpanded.add(expanded);
+            numDuplicates.add(duplicates);
+            heuristicNanos.add(heuristic.takeNanos());
+            peakPathLength.accumulate(peakDepth);
+            generated = 0;
+            expanded = 0;
+            duplicates = 0;
+            peakDepth = 0;
+        }
+
+        /* Undoes the last NUMMOVES moves of STATE */
+        void walkBack(int numMoves) {
+            for (int i = 0; i < numMoves; i += 1) {
+                state.undoMove();
+            }
+        }
+
+        /* Searches below STATE, DISTFROMSTART moves from the initial state, within THRESHOLD */
+        void search(int distFromStart, int threshold) {
+            if (tableIteration != iteration) {
+                visited.clear(); // entries from earlier iterations were searched with a lower threshold
+                tableIteration = iteration;
+            }
+            int result = searchBelow(distFromStart, threshold);
+            if (result != FOUND && result != CANCELLED) {
+                offerThreshold(result);
+            }
+        }
+
+        private int searchBelow(int distFromStart, int threshold) {
+            if (solution.get() != null || exhausted.get() != null) {
+                return CANCELLED;
+            }
+            int estimate = distFromStart + heuristic.distToSolved(state);
+            if (estimate > threshold) {
+                return estimate;
+            }
+            if (state.isSolved()) {
+                List<PuzzleState> path = StateWalker.replay(initialState, moves, distFromStart);
+                return solution.compareAndSet(null, path) ? FOUND : CANCELLED;
+            }
+            expanded += 1;
+            peakDepth = Math.max(peakDepth, distFromStart + 1);
+            budgetCountdown -= 1;
+            if (budgetCountdown == 0) {
+                budgetCountdown = BUDGET_CHECK_INTERVAL;
+                try {
+                    budget.check(stats.startNanos(), visited.size());
+                } catch (SearchBudgetExceededException e) {
+                    exhausted.compareAndSet(null, e);
+                    return CANCELLED;
+                }
+            }
+            if (distFromStart == moves.length) {
+                moves = Arrays.copyOf(moves, 2 * moves.length);
+            }
+            int min = Integer.MAX_VALUE;
+            int numMoves = state.numMoves();
+            for (int move = 0; move < numMoves; move += 1) {
+                if (state.isRedundant(move)) {
+                    continue; // the same states are reached by a sequence searched elsewhere
+                }
+                state.applyMove(move);
+                generated += 1;
+                if (!visited.visit(state.hash64(), distFromStart + 1)) {
+                    duplicates += 1;
+                    state.undoMove();
+                    continue; // already reached in at most as many moves
+                }
+                moves[distFromStart] = move;
+                int result = searchBelow(distFromStart + 1, threshold);
+                state.undoMove();
+                if (result == FOUND || result == CANCELLED) {
+                    return result;
+                }
+                min = Math.min(min, result);
+            }
+            return min;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package puzzlesolver;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/* Builds a PatternDatabase by a breadth-first search split across a ForkJoinPool.
+ * The search goes level by level over the whole range of coordinate values, and
+ * every level is cut into chunks that idle workers steal. Distances go straight
+ * into a shared AtomicNibbleArray, so workers need no locks.
+ *
+ * The first levels are expanded forwards: every entry at the current depth marks
+ * its unvisited successors. Once fewer entries are unvisited than were added at
+ * the last level, the search scans backwards instead: every unvisited entry looks
+ * for a successor at the current depth and stops at the first one. Every move has
+ * its inverse among the moves, so the successors of an entry are also the entries
+ * it is reached from, and both directions find the same distances. */
+public class ParallelPatternDatabaseBuilder {
+    private static final int UNVISITED = 0xF;
+    /* Entries handled by one task, a multiple of the 8 entries sharing an int */
+    private static final int CHUNK_SIZE = 1 << 15;
+
+    private final ForkJoinPool pool;
+
+    /* Builds on the common ForkJoinPool */
+    public ParallelPatternDatabaseBuilder() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /* Builds on POOL */
+    public ParallelPatternDatabaseBuilder(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /* Builds the database for COORDINATE using the moves 0 to NUMMOVES - 1.
+     * COORDINATE is used by several threads at once */
+    public PatternDatabase build(Coordinate coordinate, int numMoves) {
+        AtomicNibbleArray distances = new AtomicNibbleArray(coordinate.size(), UNVISITED);
+        distances.compareAndSet(coordinate.encode(new CubieCube()), UNVISITED, 0);
+        long numUnvisited = coordinate.size() - 1;
+        long numAdded = 1;
+        for (int depth = 0; numAdded > 0 && numUnvisited > 0; depth += 1) {
+            LongAdder added = new LongAdder();
+            boolean backward = numUnvisited < numAdded;
+            pool.invoke(new Level(coordinate, numMoves, distances, depth, backward, added,
+                    0, coordinate.size()));
+            numAdded = added.sum();
+            numUnvisited -= numAdded;
+            if (depth + 1 >= UNVISITED && numAdded > 0) {
+                throw new IllegalStateException("Distances do not fit in 4 bits");
+            }
+        }
+        return new PatternDatabase(coordinate, distances.toNibbleArray());
+    }
+
+    /* Finds the entries at DEPTH + 1 among the entries START to END - 1 (forwards, the
+     * entries at DEPTH among them), splitting the range until it fits in a chunk */
+    private static class Level extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Coordinate coordinate;
+        private final int numMoves;
+        private final AtomicNibbleArray distances;
+        private final int depth;
+        private final boolean backward;
+        private final LongAdder added;
+        private final int start;
+        private final int end;
+
+        Level(Coordinate coordinate, int numMoves, AtomicNibbleArray distances, int depth,
+              boolean backward, LongAdder added, int start, int end) {
+            this.coordinate = coordinate;
+            this.numMoves = numMoves;
+            this.distances = distances;
+            this.depth = depth;
+            this.backward = backward;
+            this.added = added;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > CHUNK_SIZE) {
+                int middle = start + (end - start) / 2 / CHUNK_SIZE * CHUNK_SIZE;
+                middle = Math.max(middle, start + CHUNK_SIZE);
+                invokeAll(new Level(coordinate, numMoves, distances, depth, backward, added, start, middle),
+                        new Level(coordinate, numMoves, distances, depth, backward, added, middle, end));
+                return;
+            }
+            int[] successors = new int[numMoves];
+            long numAdded = 0;
+            for (int i = start; i < end; i += 1) {
+                if (backward) {
+                    if (distances.get(i) != UNVISITED) {
+                        continue;
+                    }
+                    coordinate.successors(i, numMoves, successors);
+                    for (int next: successors) {
+                        if (distances.get(next) == depth) {
+                            distances.compareAndSet(i, UNVISITED, depth + 1);
+                            numAdded += 1;
+                            break;
+                        }
+                    }
+                } else {
+                    if (distances.get(i) != depth) {
+                        continue;
+                    }
+                    coordinate.successors(i, numMoves, successors);
+                    for (int next: successors) {
+                        if (distances.compareAndSet(next, UNVISITED, depth + 1)) {
+                            numAdded += 1;
+                        }
+                    }
+                }
+            }
+            added.add(numAdded);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package puzzlesolver;
+
+/* The exact number of moves needed to solve the pieces described by a Coordinate,
+ * for every value of that coordinate. Built by a breadth-first search from the
+ * solved state (see ParallelPatternDatabaseBuilder) and stored at 4 bits per entry. */
+public class PatternDatabase {
+    private final Coordinate coordinate;
+    private final NibbleArray distances;
+
+    /* Wraps already computed DISTANCES for COORDINATE, see TableStore and ParallelPatternDatabaseBuilder */
+    public PatternDatabase(Coordinate coordinate, NibbleArray distances) {
+        if (distances.size() != coordinate.size()) {
+            throw new IllegalArgumentException("Expected " + coordinate.size() + " entries, got " + distances.size());
+        }
+        this.coordinate = coordinate;
+        this.distances = distances;
+    }
+
+    /* Returns the packed distances, indexed by coordinate */
+    public NibbleArray distances() {
+        return distances;
+    }
+
+    /* Returns the number of moves needed to solve the tracked pieces of CUBE */
+    public int distance(CubieCube cube) {
+        return distances.get(coordinate.encode(cube));
+    }
+}
@@ -17,4 +17,8 @@ public interface PuzzleState {
 
     /* Tests for equality of two PuzzleStates */
     boolean equals(PuzzleState other);
+
+    /* Returns a 64-bit hash of the PuzzleState. Equal states must have equal hashes,
+     * and unequal states should collide rarely enough to treat the hash as the state */
+    long hash64();
 }
@@ -3,24 +3,51 @@ package puzzlesolver;
 import java.util.*;
 
 /* A 3x3 Rubik's Cube */
-public class RubiksCube implements PuzzleState {
-
-    private HashMap<CubePosition, Character> cubeMap; // core representation of the cube
-    private char[][] cubeArr;
-    private static PieceSequence ps;
-    private static HashMap<String, FaceSequence> faceMap;
-    private static HashMap<String, List<CubePosition>> adjCubePositions;
-    private static HashMap<Integer, Move> moveMap;
-    private Stack<char[][]> moveStack;
-    private static Random myRandom;
-
-    /* Creates a solved Rubik's Cube */
+public class RubiksCube implements MutablePuzzleState {
+
+    private byte[] facelets; // core representation of the cube, see CubeUtils.faceletIndex
+    private byte[] history; // ids of the moves made so far, oldest first; null until the first move
+    private int historySize;
+    private Metric metric; // decides the moves a search may make and how they are counted
+    private int numSymmetries = 1; // hash64 hashes the representative under this many symmetries
+    private CubieCube cubies; // scratch for pack and unpack, created on first use
+    private byte[] representative; // scratch for hash64, created on first use
+    private static final ScrambleGenerator SCRAMBLES = new ScrambleGenerator(); // shared by every cube and thread
+    private static final long[] ZOBRIST = new long[54 * 6]; // a random key per facelet and color
+
+    static {
+        Random zobristRandom = new Random(54); // fixed seed keeps hashes stable across runs
+        for (int i = 0; i < ZOBRIST.length; i += 1) {
+            ZOBRIST[i] = zobristRandom.nextLong();
+        }
+    }
+
+    /* Creates a solved Rubik's Cube that is searched in the quarter-turn metric */
     public RubiksCube() {
-        cubeMap = new HashMap<>();
+        this(Metric.QUARTER_TURN);
+    }
+
+    /* Creates a solved Rubik's Cube that is searched in METRIC */
+    public RubiksCube(Metric metric) {
         makeCube();
+        this.metric = metric;
+    }
+
+    /* Returns a cube searched in the quarter-turn metric with the facelets of
+     * FACELETS, a facelet string (see CubeFormat). Throws an IllegalArgumentException
+     * unless FACELETS describes a cube that can be solved */
+    public static RubiksCube fromFaceletString(String facelets) {
+        return fromFaceletString(facelets, Metric.QUARTER_TURN);
     }
 
-    /* Creates a Rubik's Cube with the same state as RC */
+    /* Returns a cube searched in METRIC with the facelets of FACELETS, see fromFaceletString(String) */
+    public static RubiksCube fromFaceletString(String facelets, Metric metric) {
+        RubiksCube rc = new RubiksCube(metric);
+        CubeFormat.parseFacelets(facelets, rc.facelets);
+        return rc;
+    }
+
+    /* Creates a Rubik's Cube with the same state as RC, but no move history */
     private RubiksCube(RubiksCube rc) {
         transferNonStaticFieldsFrom(rc);
     }
@@ -29,150 +56,224 @@ public class RubiksCube implements PuzzleState {
     /* ROTATING THE CUBE */
     ///////////////////////
 
-    /* Rotates the given FACE in the given DIRECTION */
+    /* Rotates the given FACE in the given DIRECTION ("cw", "ccw" or "180") */
     public void rotate(String face, String direction) {
-        HashMap<CubePosition, Character> storageMap = fillStorageMap(face); // avoids cloning
-        for (int i = 1; i <= 8; i += 1) { // update face values
-            int nextPos;
-            char value;
-            if (i <= 4) { // edge
-                nextPos = ps.nextEdge(face, face, i, direction);
-                value = storageMap.get(new CubePosition(face, i));
-            } else { // corner
-                value = storageMap.get(new CubePosition(face, i));
-                nextPos = ps.nextCorner(face, face, i, direction);
-            }
-            cubeMap.put(new CubePosition(face, nextPos), value);
-        }
-        List<CubePosition> adjPositions = adjCubePositions.get(face);
-        for (CubePosition cp: adjPositions) { // update adjacent face values
-            String oldFace = cp.face;
-            int pos = cp.position;
-            String nextFace = faceMap.get(face).nextFace(oldFace, direction);
-            int nextPos;
-            if (pos <= 4) {
-                nextPos = ps.nextEdge(face, nextFace, pos, direction);
-            } else {
-                nextPos = ps.nextCorner(face, nextFace, pos, direction);
-            }
-            char value = storageMap.get(cp);
-            cubeMap.put(new CubePosition(nextFace, nextPos), value);
-        }
-        updateCubeArr();
-        moveStack.push(CubeUtils.deepCopy(cubeArr)); // invariant: top element of the stack is always the current state
+        rotate(MoveTable.moveId(face, direction));
     }
 
-    /* Creates a map of the CubePositions on and adjacent to FACE */
-    private HashMap<CubePosition, Character> fillStorageMap(String face) {
-        HashMap<CubePosition, Character> storageMap = new HashMap<>();
-        for (int i = 1; i <= 8; i += 1) { // copy face values
-            CubePosition cp = new CubePosition(face, i);
-            char value = cubeMap.get(cp);
-            storageMap.put(cp, value);
-        }
-        List<CubePosition> adjPositions = adjCubePositions.get(face);
-        for (CubePosition adjPosition: adjPositions) { // copy adjacent position values
-            char value = cubeMap.get(adjPosition);
-            storageMap.put(adjPosition, value);
+    /* Applies the move with id MOVE (see MoveTable) */
+    public void rotate(int move) {
+        MoveTable.applyInPlace(move, facelets);
+        if (history == null) {
+            history = new byte[16];
+        } else if (historySize == history.length) {
+            history = Arrays.copyOf(history, 2 * history.length);
         }
-        return storageMap;
+        history[historySize] = (byte) move;
+        historySize += 1;
     }
 
-    
-
     /////////////////////////////////////////////
     /* IMPLEMENTING THE PUZZLE STATE INTERFACE */
     /////////////////////////////////////////////
 
     public Iterable<PuzzleState> adjacentStates() {
         List<PuzzleState> adjacent = new ArrayList<>();
-        for (int i = 1; i <= 12; i += 1) {
-            Move move = moveMap.get(i);
-            String face = move.face;
-            String direction = move.direction;
-            rotate(face, direction);
+        for (int move = 0; move < metric.numMoves(); move += 1) {
+            rotate(move);
             adjacent.add(new RubiksCube(this));
             undoMove();
         }
         return adjacent;
     }
 
+    /* Never overestimates, see CubeHeuristic */
     public int distToSolved() {
-        Set<CubePosition> cubePositions = cubeMap.keySet();
-        int numOutOfPlace = 0;
-        for (CubePosition cp: cubePositions) {
-            char value = cubeMap.get(cp);
-            String face = cp.face;
-            if (face.charAt(0) != value) {
-                numOutOfPlace += 1;
+        return CubeHeuristic.estimate(facelets, metric);
+    }
+
+    @Override
+    public boolean isSolved() {
+        for (int i = 0; i < facelets.length; i += 1) {
+            if (facelets[i] != i / 9) { // every face holds 9 facelets
+                return false;
             }
         }
-        return numOutOfPlace;
+        return true;
     }
 
     public void printState() {
         printCube();
     }
 
+    public int numMoves() {
+        return metric.numMoves();
+    }
+
+    /* Same as rotate(MOVE) */
+    public void applyMove(int move) {
+        rotate(move);
+    }
+
+    /* Looks at the last two moves in the move history, see MoveTable.redundant */
+    @Override
+    public boolean isRedundant(int move) {
+        int previous = historySize > 0 ? history[historySize - 1] : MoveTable.NO_MOVE;
+        int beforePrevious = historySize > 1 ? history[historySize - 2] : MoveTable.NO_MOVE;
+        return MoveTable.redundant(metric, beforePrevious, previous, move);
+    }
+
     public boolean equals(PuzzleState other) {
         RubiksCube otherCube = (RubiksCube) other;
-        return this.cubeMap.equals(otherCube.cubeMap);
+        return Arrays.equals(this.facelets, otherCube.facelets);
+    }
+
+    /* Zobrist hash: the XOR of the keys of each facelet's color. With symmetry
+     * reduction, the hash of the representative of this cube (see CubeSymmetry) */
+    public long hash64() {
+        byte[] cube = facelets;
+        if (numSymmetries > 1) {
+            if (representative == null) {
+                representative = new byte[54];
+            }
+            CubeSymmetry.canonicalize(facelets, numSymmetries, representative);
+            cube = representative;
+        }
+        long hash = 0;
+        for (int i = 0; i < cube.length; i += 1) {
+            hash ^= ZOBRIST[6 * i + cube[i]];
+        }
+        return hash;
     }
 
     //////////////////////
     /* OTHER OPERATIONS */
     //////////////////////
 
+    /* Packs the corners and the edges into a long each, see CubieCube.packCorners */
+    @Override
+    public int packedLength() {
+        return 2;
+    }
+
+    @Override
+    public void pack(long[] dst, int offset) {
+        CubieCube cube = scratchCubies();
+        cube.setFacelets(facelets);
+        dst[offset] = cube.packCorners();
+        dst[offset + 1] = cube.packEdges();
+    }
+
+    @Override
+    public void unpack(long[] src, int offset) {
+        CubieCube cube = scratchCubies();
+        cube.unpack(src[offset], src[offset + 1]);
+        cube.getFacelets(facelets);
+        historySize = 0;
+    }
+
+    private CubieCube scratchCubies() {
+        if (cubies == null) {
+            cubies = new CubieCube();
+        }
+        return cubies;
+    }
+
+    /* Returns the metric this cube is searched in */
+    public Metric metric() {
+        return metric;
+    }
+
+    /* Searches this cube, and the copies made from it afterwards, in METRIC */
+    public void setMetric(Metric metric) {
+        this.metric = metric;
+    }
+
+    /* Makes hash64 of this cube, and of the copies made from it afterwards, hash the
+     * representative under the first NUMSYMMETRIES symmetries: 1 (no reduction),
+     * CubeSymmetry.NUM_UD_SYMMETRIES or CubeSymmetry.NUM_SYMMETRIES. Searches then
+     * treat cubes that are symmetric to each other as duplicates, which is safe
+     * because the solved cube is symmetric to itself */
+    public void setSymmetryReduction(int numSymmetries) {
+        if (numSymmetries != 1 && numSymmetries != CubeSymmetry.NUM_UD_SYMMETRIES
+                && numSymmetries != CubeSymmetry.NUM_SYMMETRIES) {
+            throw new IllegalArgumentException("Unsupported number of symmetries: " + numSymmetries);
+        }
+        this.numSymmetries = numSymmetries;
+    }
+
+    /* Returns the number of symmetries hash64 reduces by */
+    public int symmetryReduction() {
+        return numSymmetries;
+    }
+
+    /* Returns a new cube holding the representative of this cube under the first
+     * NUMSYMMETRIES symmetries (see CubeSymmetry.canonicalize) */
+    public RubiksCube representative(int numSymmetries) {
+        RubiksCube rc = new RubiksCube(this);
+        CubeSymmetry.canonicalize(facelets, numSymmetries, rc.facelets);
+        return rc;
+    }
+
     /* Resets the cube to a solved state */
     public void resetCube() {
-        while(!isSolved()) {
+        while(!isSolved() && historySize > 0) {
             undoMove();
         }
+        if (!isSolved()) { // copies do not know the moves that scrambled them
+            CubeUtils.initializeFacelets(facelets);
+        }
     }
 
-    /* Undoes the previous move */
+    /* Returns a copy of this cube. The copy starts with an empty move history */
+    public RubiksCube copy() {
+        return new RubiksCube(this);
+    }
+
+    /* Writes the pieces of this cube into CUBE */
+    void toCubieCube(CubieCube cube) {
+        cube.setFacelets(facelets);
+    }
+
+    /* Sets this cube to the pieces of CUBE, leaving no moves to undo */
+    void setCubieCube(CubieCube cube) {
+        cube.getFacelets(facelets);
+        historySize = 0;
+    }
+
+    /* Undoes the previous move by applying its inverse */
     public void undoMove() {
-        if (isSolved()) {
+        if (historySize == 0) { // no moves left to undo
             return;
         }
-        moveStack.pop(); // removes the current state from the stack
-        cubeArr = moveStack.peek(); // restores the state before the current state
-        updateCubeMap();
+        historySize -= 1;
+        MoveTable.applyInPlace(MoveTable.inverse(history[historySize]), facelets);
     }
 
-    /* Scrambles the Rubik's Cube with a minimum
-     * of 15 moves and a maximum of 25 moves */
+    /* Scrambles the Rubik's Cube with a minimum of 15 moves and a maximum of 39 moves,
+     * half turns included. For reproducible or uniformly random scrambles, use a
+     * ScrambleGenerator with a seed */
     public void scramble() {
-        int numMoves = myRandom.nextInt(25) + 15;
+        int numMoves = SCRAMBLES.stream().nextInt(25) + 15;
         for (int i = 0; i < numMoves; i += 1) {
-            int moveNum = myRandom.nextInt(12) + 1;
-            Move move = moveMap.get(moveNum);
-            String face = move.face;
-            String direction = move.direction;
-            rotate(face, direction);
+            rotate(SCRAMBLES.stream().nextInt(MoveTable.NUM_MOVES));
         }
     }
 
-    ///////////////////////////////////
-    /* UPDATING THE CUBE ARRAY & MAP */
-    ///////////////////////////////////
-
-    /* Updates cubeArr to match cubeMap */
-    private void updateCubeArr() {
-        CubeUtils.fillRows(cubeMap, cubeArr);
-    }
-
-    /* Updates cubeMap to match cubeArr */
-    private void updateCubeMap() {
-        CubeUtils.updateCubeMap(cubeMap, cubeArr);
-    }
-
     ///////////////////////
     /* PRINTING THE CUBE */
     ///////////////////////
 
+    /* Returns the facelet string of this cube (see CubeFormat) */
+    public String toFaceletString() {
+        return CubeFormat.toFaceletString(facelets);
+    }
+
     /* Prints the current state of the cube */
     public void printCube() {
+        char[][] cubeArr = new char[9][12]; // 9 rows, each with length 12
+        CubeUtils.initializeWithPlaceholders(cubeArr);
+        CubeUtils.fillRows(facelets, cubeArr);
         CubeUtils.print2DArray(cubeArr);
         System.out.println();
     }
@@ -183,26 +284,15 @@ public class RubiksCube implements PuzzleState {
 
     /* Initializes the fields */
     private void makeCube() {
-        CubeUtils.initializeCubeMap(cubeMap);
-        cubeArr =  new char[9][12]; // 9 rows, each with length 12
-        CubeUtils.initializeWithPlaceholders(cubeArr);
-        updateCubeArr();
-        ps = new PieceSequence();
-        faceMap = new HashMap<>();
-        CubeUtils.populateFaceMap(faceMap);
-        adjCubePositions = new HashMap<>();
-        CubeUtils.populateAdjCubePositions(adjCubePositions, faceMap);
-        moveMap = new HashMap<>();
-        CubeUtils.populateMoveMap(moveMap);
-        moveStack = new Stack<>();
-        moveStack.push(CubeUtils.deepCopy(cubeArr)); // pushes the solved state onto the stack
-        myRandom = new Random();
-    }
-
-    /* Transfers all fields from OTHER to avoid recomputation */
+        facelets = new byte[54]; // 6 faces, each with 9 facelets
+        CubeUtils.initializeFacelets(facelets);
+    }
+
+    /* Transfers the state from OTHER to avoid recomputation. The move history
+     * is not transferred, so a copy takes the same memory however it was reached */
     private void transferNonStaticFieldsFrom(RubiksCube other) {
-        this.cubeMap = (HashMap<CubePosition, Character>) other.cubeMap.clone(); // cloning is ok here because CubePosition is immutable
-        this.cubeArr = CubeUtils.deepCopy(other.cubeArr);
-        this.moveStack = (Stack<char[][]>) other.moveStack.clone(); // cloning is ok here because the arrays in the Stack are copies
+        this.facelets = other.facelets.clone();
+        this.metric = other.metric;
+        this.numSymmetries = other.numSymmetries;
     }
 }
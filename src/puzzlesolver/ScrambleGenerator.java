@@ -0,0 +1,118 @@
+package puzzlesolver;
+
+import java.util.SplittableRandom;
+
+/* Scrambles RubiksCubes, either with a fixed number of random moves or into a
+ * uniformly random state. Any number of threads may share a generator: each
+ * thread draws from its own SplittableRandom, split from the generator's seed the
+ * first time the thread uses it, so threads never wait on each other. Which
+ * thread gets which stream depends on the order threads arrive in; for output
+ * that does not, give every worker its own generator from split(). */
+public class ScrambleGenerator {
+    private static final int NUM_CORNER_PERMUTATIONS = 40320; // 8!
+    private static final int NUM_CORNER_ORIENTATIONS = 2187; // 3^7
+    private static final int NUM_EDGE_PERMUTATIONS = 479001600; // 12!
+    private static final int NUM_EDGE_ORIENTATIONS = 2048; // 2^11
+
+    private final SplittableRandom root; // only split while holding its lock
+    private final ThreadLocal<SplittableRandom> streams;
+    private final ThreadLocal<CubieCube> scratch = ThreadLocal.withInitial(CubieCube::new);
+
+    /* Creates a generator with a seed that differs from run to run */
+    public ScrambleGenerator() {
+        this(new SplittableRandom());
+    }
+
+    /* Creates a generator whose scrambles are the same in every run with the same SEED,
+     * as long as every thread draws the same scrambles (see split) */
+    public ScrambleGenerator(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private ScrambleGenerator(SplittableRandom root) {
+        this.root = root;
+        streams = ThreadLocal.withInitial(this::splitRoot);
+    }
+
+    /* Returns a new generator with a stream of its own, which depends only on the
+     * seed of this generator and on how many generators were split from it before */
+    public ScrambleGenerator split() {
+        return new ScrambleGenerator(splitRoot());
+    }
+
+    /* Fills the first DEPTH entries of MOVES with random moves of METRIC, none of
+     * which is redundant after the moves before it (see MoveTable.redundant) */
+    public void randomMoves(Metric metric, int[] moves, int depth) {
+        SplittableRandom random = streams.get();
+        int numMoves = metric.numMoves();
+        int beforePrevious = MoveTable.NO_MOVE;
+        int previous = MoveTable.NO_MOVE;
+        for (int i = 0; i < depth; i += 1) {
+            int move;
+            do {
+                move = random.nextInt(numMoves);
+            } while (MoveTable.redundant(metric, beforePrevious, previous, move));
+            moves[i] = move;
+            beforePrevious = previous;
+            previous = move;
+        }
+    }
+
+    /* Returns DEPTH random moves of METRIC, see randomMoves(Metric, int[], int) */
+    public int[] randomMoves(Metric metric, int depth) {
+        int[] moves = new int[depth];
+        randomMoves(metric, moves, depth);
+        return moves;
+    }
+
+    /* Applies DEPTH random moves in the metric of CUBE to CUBE, see randomMoves */
+    public void scramble(RubiksCube cube, int depth) {
+        SplittableRandom random = streams.get();
+        int numMoves = cube.numMoves();
+        for (int i = 0; i < depth; i += 1) {
+            int move;
+            do {
+                move = random.nextInt(numMoves);
+            } while (cube.isRedundant(move));
+            cube.rotate(move);
+        }
+    }
+
+    /* Sets CUBE to a random state, each of the 43252003274489856000 states reachable
+     * by moves being equally likely */
+    public void randomState(CubieCube cube) {
+        SplittableRandom random = streams.get();
+        cube.setCornerPermutation(random.nextInt(NUM_CORNER_PERMUTATIONS));
+        cube.setCornerOrientation(random.nextInt(NUM_CORNER_ORIENTATIONS));
+        cube.setEdgePermutation(random.nextInt(NUM_EDGE_PERMUTATIONS));
+        cube.setEdgeOrientation(random.nextInt(NUM_EDGE_ORIENTATIONS));
+        if (cube.cornerParity() != cube.edgeParity()) {
+            cube.swapEdges(0, 1); // pairs every state of mismatched parity with one that can be reached
+        }
+    }
+
+    /* Sets CUBE to a uniformly random state, see randomState(CubieCube). CUBE has no moves to undo */
+    public void randomState(RubiksCube cube) {
+        CubieCube cubies = scratch.get();
+        randomState(cubies);
+        cube.setCubieCube(cubies);
+    }
+
+    /* Returns a new cube in a uniformly random state, searched in METRIC */
+    public RubiksCube randomState(Metric metric) {
+        RubiksCube cube = new RubiksCube(metric);
+        randomState(cube);
+        return cube;
+    }
+
+    /* The stream of the calling thread, for callers that need raw random numbers */
+    SplittableRandom stream() {
+        return streams.get();
+    }
+
+    private SplittableRandom splitRoot() {
+        synchronized (root) {
+            return root.split();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package puzzlesolver;
+
+import java.util.concurrent.TimeUnit;
+
+/* Limits on a single solve: how long it may run and how many states it may
+ * store. A search that reaches either limit throws a SearchBudgetExceededException,
+ * unless it has a solution it can return instead (see AStarSearch.setAnytime and
+ * TwoPhaseSearch.setBudget).
+ * Memory outside the heap is limited by OffHeapSearchMemory instead */
+public final class SearchBudget {
+    /* Lets a search run until it finishes or the JVM runs out of memory */
+    public static final SearchBudget UNLIMITED = new SearchBudget(Long.MAX_VALUE, Long.MAX_VALUE);
+
+    private final long timeLimitNanos;
+    private final long maxNodes;
+
+    /* Allows TIMELIMITMILLIS milliseconds of wall-clock time and MAXNODES stored states */
+    public SearchBudget(long timeLimitMillis, long maxNodes) {
+        if (timeLimitMillis <= 0 || maxNodes <= 0) {
+            throw new IllegalArgumentException("Budget must be positive");
+        }
+        this.timeLimitNanos = TimeUnit.MILLISECONDS.toNanos(timeLimitMillis);
+        this.maxNodes = maxNodes;
+    }
+
+    public long timeLimitNanos() {
+        return timeLimitNanos;
+    }
+
+    public long maxNodes() {
+        return maxNodes;
+    }
+
+    /* Throws a SearchBudgetExceededException if a search that started at STARTNANOS
+     * and has stored NUMNODES states is out of time or states */
+    void check(long startNanos, long numNodes) {
+        if (numNodes > maxNodes) {
+            throw new SearchBudgetExceededException("Stored more than " + maxNodes + " states");
+        }
+        if (timeLimitNanos != Long.MAX_VALUE && System.nanoTime() - startNanos > timeLimitNanos) {
+            throw new SearchBudgetExceededException("Ran for more than "
+                    + TimeUnit.NANOSECONDS.toMillis(timeLimitNanos) + " ms");
+        }
+    }
+}
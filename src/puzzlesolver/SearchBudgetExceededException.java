@@ -0,0 +1,15 @@
+package puzzlesolver;
+
+/* Thrown by a search that reaches a limit of its SearchBudget before finding a solution.
+ * The search is abandoned, but the engine remains usable */
+public class SearchBudgetExceededException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public SearchBudgetExceededException(String message) {
+        super(message);
+    }
+
+    public SearchBudgetExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
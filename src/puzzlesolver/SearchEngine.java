@@ -0,0 +1,23 @@
+package puzzlesolver;
+
+import java.util.List;
+
+/* A search algorithm that Solver can use to solve a PuzzleState */
+public interface SearchEngine {
+    /* Returns the states from INITIALSTATE to a solved state, both inclusive */
+    List<PuzzleState> solve(PuzzleState initialState);
+
+    /* Returns the counts and timings of the last call to solve */
+    SearchStats stats();
+
+    /* Reports the progress of later calls to solve to LISTENER */
+    void setListener(SearchListener listener);
+
+    /* Limits the time and the states of later calls to solve, see SearchBudget */
+    void setBudget(SearchBudget budget);
+
+    /* Returns the number of states expanded by the last call to solve */
+    default long numExpanded() {
+        return stats().nodesExpanded();
+    }
+}
@@ -0,0 +1,52 @@
+package puzzlesolver;
+
+/* Receives progress reports from a SearchEngine. Every method does nothing by
+ * default, so a listener only overrides what it needs. Listeners are called on
+ * the thread that called solve, and should return quickly */
+public interface SearchListener {
+    /* Ignores every report; the default listener of every engine */
+    SearchListener NONE = new SearchListener() {
+    };
+
+    /* The number of expansions between calls to progress */
+    long PROGRESS_INTERVAL = 1 << 20;
+
+    /* Called by iterative engines after each iteration */
+    default void iterationFinished(SearchStats.Iteration iteration) {
+    }
+
+    /* Called every PROGRESS_INTERVAL expansions by single-threaded engines,
+     * with the counts so far */
+    default void progress(SearchStats stats) {
+    }
+
+    /* Called by engines that can search on after a solution (see AStarSearch.setAnytime)
+     * whenever they find one shorter than those before, with its NUMMOVES and the counts so far */
+    default void solutionFound(int numMoves, SearchStats stats) {
+    }
+
+    /* Called when solve returns or throws, with the final counts */
+    default void searchFinished(SearchStats stats) {
+    }
+
+    /* Returns a listener that prints every iteration and a summary to System.out */
+    static SearchListener printing() {
+        return new SearchListener() {
+            @Override
+            public void iterationFinished(SearchStats.Iteration iteration) {
+                System.out.println(iteration);
+            }
+
+            @Override
+            public void solutionFound(int numMoves, SearchStats stats) {
+                System.out.println("Found a solution with " + numMoves + " moves after "
+                        + (stats.elapsedNanos() / 1_000_000) + " ms");
+            }
+
+            @Override
+            public void searchFinished(SearchStats stats) {
+                System.out.println(stats);
+            }
+        };
+    }
+}
@@ -0,0 +1,128 @@
+package puzzlesolver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/* Counts and timings of one call to SearchEngine.solve. Engines fill in a new
+ * SearchStats for every solve, so a SearchStats that was handed out is never
+ * changed by a later solve. Engines that have no use for a count leave it 0. */
+public class SearchStats {
+    /* The counts of one iteration of an iterative engine */
+    public static class Iteration {
+        public final int number; // from 1
+        public final int threshold; // the bound searched within, e.g. on estimated solution length
+        public final long nodesGenerated;
+        public final long nodesExpanded;
+        public final long elapsedNanos;
+
+        Iteration(int number, int threshold, long nodesGenerated, long nodesExpanded, long elapsedNanos) {
+            this.number = number;
+            this.threshold = threshold;
+            this.nodesGenerated = nodesGenerated;
+            this.nodesExpanded = nodesExpanded;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "Iteration " + number + ": threshold " + threshold + ", "
+                    + nodesExpanded + " states expanded";
+        }
+    }
+
+    private final long startNanos = System.nanoTime();
+    long nodesGenerated; // states produced by applying a move to an expanded state
+    long nodesExpanded; // states whose moves were tried
+    long duplicateHits; // generated states dropped because they were already reached as cheaply
+    long peakFringeSize; // states held at once for later expansion
+    long heuristicNanos;
+    long elapsedNanos;
+    long prunedByBound; // generated states dropped because they could not beat the best solution so far
+    int solutionsFound; // by anytime engines, each shorter than the one before
+    boolean budgetExhausted; // the search stopped at its SearchBudget and returned the best solution so far
+    private final List<Iteration> iterations = new ArrayList<>();
+
+    public long nodesGenerated() {
+        return nodesGenerated;
+    }
+
+    public long nodesExpanded() {
+        return nodesExpanded;
+    }
+
+    public long duplicateHits() {
+        return duplicateHits;
+    }
+
+    /* Returns the most states held at once for later expansion: the open list of
+     * a best-first engine, the current path of a depth-first one */
+    public long peakFringeSize() {
+        return peakFringeSize;
+    }
+
+    /* Returns the time spent in distToSolved, estimated from a sample of the calls (see HeuristicTimer) */
+    public long heuristicNanos() {
+        return heuristicNanos;
+    }
+
+    /* Returns the time since the search started while it runs, and its total time once it has finished */
+    public long elapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long prunedByBound() {
+        return prunedByBound;
+    }
+
+    /* Returns the number of solutions found, each shorter than the one before; at most 1
+     * unless the engine kept searching after its first solution */
+    public int solutionsFound() {
+        return solutionsFound;
+    }
+
+    /* Returns whether the search ran out of its SearchBudget and returned the best solution
+     * found so far, which may not be the best it could have found */
+    public boolean budgetExhausted() {
+        return budgetExhausted;
+    }
+
+    public double nodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodesExpanded * 1e9 / elapsedNanos;
+    }
+
+    /* Returns the iterations finished so far, oldest first; empty for engines that do not iterate */
+    public List<Iteration> iterations() {
+        return Collections.unmodifiableList(iterations);
+    }
+
+    long startNanos() {
+        return startNanos;
+    }
+
+    /* Brings elapsedNanos up to date */
+    void updateElapsed() {
+        elapsedNanos = System.nanoTime() - startNanos;
+    }
+
+    /* Records an iteration that ended now, started at ITERATIONSTARTNANOS, and returns it */
+    Iteration addIteration(int threshold, long generated, long expanded, long iterationStartNanos) {
+        Iteration iteration = new Iteration(iterations.size() + 1, threshold, generated, expanded,
+                System.nanoTime() - iterationStartNanos);
+        iterations.add(iteration);
+        return iteration;
+    }
+
+    void offerFringeSize(long size) {
+        peakFringeSize = Math.max(peakFringeSize, size);
+    }
+
+    @Override
+    public String toString() {
+        return nodesExpanded + " states expanded, " + nodesGenerated + " generated, "
+                + duplicateHits + " duplicates, peak fringe " + peakFringeSize + ", "
+                + (heuristicNanos / 1_000_000) + " ms in the heuristic, "
+                + (elapsedNanos / 1_000_000) + " ms total (" + Math.round(nodesPerSecond()) + " states/s)"
+                + (budgetExhausted ? ", stopped by the budget" : "");
+    }
+}
@@ -0,0 +1,281 @@
+package puzzlesolver;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/* Solves cubes for other processes over HTTP on the loopback interface, so the
+ * pattern databases, the two-phase tables and the JIT-compiled search code are
+ * loaded and warmed up once instead of once per solve.
+ *
+ * GET /solve?facelets=F&engine=E[&metric=M][&timeoutMillis=T] solves the cube
+ * with facelet string F (see CubeFormat) with engine E ("two" by default, or
+ * "astar", "ida", "bidirectional") in metric M ("qtm" by default, or "htm").
+ * A POST with the same parameters form-encoded in its body works too.
+ * The response is a JSON object with the moves, their number, the time taken
+ * and the states expanded; errors are a JSON object with an "error" message.
+ *
+ * Solves run on a fixed pool of worker threads, each keeping one engine of every
+ * kind. At most queueCapacity solves wait for a worker; further requests are
+ * turned away at once with 503 and a Retry-After header instead of piling up.
+ * The timeout of a request runs from its arrival: a solve gets what is left of it
+ * after waiting in the queue as its SearchBudget, so a hard cube frees its worker
+ * when the caller gets 504; the two-phase engine returns the shortest solution it
+ * found by then instead */
+public class SolveService implements AutoCloseable {
+    public static final int DEFAULT_PORT = 8642;
+    public static final long DEFAULT_TIMEOUT_MILLIS = 10_000;
+    private static final List<String> ENGINES = List.of("two", "astar", "ida", "bidirectional");
+    /* Handler threads beyond one per running or queued solve, which answer /health and turn requests away */
+    private static final int NUM_SPARE_HANDLERS = 2;
+
+    private final HttpServer server;
+    private final ThreadPoolExecutor workers;
+    private final ExecutorService handlers;
+    private final ThreadLocal<Map<String, SearchEngine>> engines = ThreadLocal.withInitial(HashMap::new);
+
+    /* Listens on PORT of the loopback interface (0 for any free port), solving on
+     * NUMWORKERS threads with up to QUEUECAPACITY solves waiting. Loads and warms up
+     * the quarter-turn tables before returning */
+    public SolveService(int port, int numWorkers, int queueCapacity) throws IOException {
+        int numQueued = Math.max(1, queueCapacity);
+        workers = new ThreadPoolExecutor(numWorkers, numWorkers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(numQueued));
+        // a handler waits on a running or queued solve, or returns at once, so this many never run short
+        handlers = Executors.newFixedThreadPool(numWorkers + numQueued + NUM_SPARE_HANDLERS);
+        warmUp();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(handlers);
+        server.createContext("/solve", this::handleSolve);
+        server.createContext("/health", exchange -> respond(exchange, 200, "{\"status\":\"ok\"}"));
+        server.start();
+    }
+
+    /* Returns the port the service listens on */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /* Stops accepting requests, lets running solves finish and stops the threads */
+    public void close() {
+        server.stop(0);
+        workers.shutdown();
+        handlers.shutdown();
+    }
+
+    /* Runs the service until the JVM is stopped. Arguments: [port [workers [queue capacity]]].
+     * Start the JVM with -Dsun.net.httpserver.nodelay=true: otherwise every response
+     * waits for the client's delayed ACK, adding about 40 ms to each request */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int numWorkers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int queueCapacity = args.length > 2 ? Integer.parseInt(args[2]) : 4 * numWorkers;
+        SolveService service = new SolveService(port, numWorkers, queueCapacity);
+        Runtime.getRuntime().addShutdownHook(new Thread(service::close));
+        System.out.println("Solving on http://localhost:" + service.port() + "/solve with "
+                + numWorkers + " workers");
+    }
+
+    /* Loads the quarter-turn pattern databases and the two-phase tables and runs
+     * a few solves on every worker, so the first requests find everything compiled */
+    private void warmUp() {
+        ScrambleGenerator scrambles = new ScrambleGenerator(0);
+        Future<?>[] runs = new Future<?>[workers.getCorePoolSize()];
+        for (int i = 0; i < runs.length; i += 1) {
+            RubiksCube cube = new RubiksCube();
+            scrambles.scramble(cube, 8);
+            runs[i] = workers.submit(() -> {
+                engine("two").solve(cube);
+                engine("ida").solve(cube);
+            });
+        }
+        for (Future<?> run: runs) {
+            try {
+                run.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Warm-up failed", e.getCause());
+            }
+        }
+    }
+
+    private void handleSolve(HttpExchange exchange) throws IOException {
+        Map<String, String> params;
+        RubiksCube cube;
+        String engineName;
+        long timeoutMillis;
+        try {
+            params = parameters(exchange);
+            String facelets = params.get("facelets");
+            if (facelets == null) {
+                throw new IllegalArgumentException("Missing parameter: facelets");
+            }
+            cube = RubiksCube.fromFaceletString(facelets, metric(params.getOrDefault("metric", "qtm")));
+            engineName = params.getOrDefault("engine", "two");
+            if (!ENGINES.contains(engineName)) {
+                throw new IllegalArgumentException("Unknown engine: " + engineName);
+            }
+            timeoutMillis = Long.parseLong(params.getOrDefault("timeoutMillis",
+                    Long.toString(DEFAULT_TIMEOUT_MILLIS)));
+            if (timeoutMillis <= 0) {
+                throw new IllegalArgumentException("timeoutMillis must be positive");
+            }
+        } catch (IllegalArgumentException e) { // NumberFormatException too
+            respond(exchange, 400, errorJson(e.getMessage()));
+            return;
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        Future<String> result;
+        try {
+            result = workers.submit(() -> solve(cube, engineName, deadline));
+        } catch (RejectedExecutionException e) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            respond(exchange, 503, errorJson("Too many solves waiting"));
+            return;
+        }
+        try {
+            respond(exchange, 200, result.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+        } catch (TimeoutException e) {
+            result.cancel(false); // a running solve stops at its budget, which ends at DEADLINE too
+            workers.purge(); // frees the queue slot of a solve that never started
+            respond(exchange, 504, errorJson("No solution within " + timeoutMillis + " ms"));
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            int status = cause instanceof SearchBudgetExceededException ? 504 : 500;
+            respond(exchange, status, errorJson(cause.getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            respond(exchange, 503, errorJson("Shutting down"));
+        }
+    }
+
+    /* Solves CUBE on the calling worker thread by DEADLINE, a System.nanoTime
+     * value, and returns the response body */
+    private String solve(RubiksCube cube, String engineName, long deadline) {
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remainingMillis <= 0) {
+            throw new SearchBudgetExceededException("Timed out waiting for a worker");
+        }
+        SearchEngine engine = engine(engineName);
+        engine.setBudget(new SearchBudget(remainingMillis, Long.MAX_VALUE));
+        List<PuzzleState> solution = engine.solve(cube);
+        StringBuilder json = new StringBuilder("{\"engine\":\"").append(engineName).append("\",\"moves\":[");
+        for (int i = 1; i < solution.size(); i += 1) {
+            Move move = MoveTable.getMove(moveBetween((RubiksCube) solution.get(i - 1), (RubiksCube) solution.get(i)));
+            json.append(i > 1 ? "," : "").append('"').append(move.face).append(' ').append(move.direction).append('"');
+        }
+        SearchStats stats = engine.stats();
+        return json.append("],\"length\":").append(solution.size() - 1)
+                .append(",\"millis\":").append(stats.elapsedNanos() / 1_000_000)
+                .append(",\"expanded\":").append(stats.nodesExpanded()).append('}').toString();
+    }
+
+    /* Returns the engine named NAME of the calling thread, creating it on first use */
+    private SearchEngine engine(String name) {
+        SearchEngine engine = engines.get().get(name);
+        if (engine == null) {
+            engine = newEngine(name);
+            engines.get().put(name, engine);
+        }
+        return engine;
+    }
+
+    private static SearchEngine newEngine(String name) {
+        switch (name) {
+            case "two":
+                return new TwoPhaseSearch();
+            case "astar":
+                return new AStarSearch();
+            case "ida":
+                return new IDAStarSearch();
+            case "bidirectional":
+                return new BidirectionalSearch();
+            default:
+                throw new IllegalArgumentException("Unknown engine: " + name);
+        }
+    }
+
+    private static Metric metric(String name) {
+        switch (name) {
+            case "qtm":
+                return Metric.QUARTER_TURN;
+            case "htm":
+                return Metric.HALF_TURN;
+            default:
+                throw new IllegalArgumentException("Unknown metric: " + name);
+        }
+    }
+
+    /* Returns the id of the move that takes FROM to TO */
+    private static int moveBetween(RubiksCube from, RubiksCube to) {
+        RubiksCube cube = from.copy();
+        for (int move = 0; move < MoveTable.NUM_MOVES; move += 1) {
+            cube.rotate(move);
+            if (cube.equals(to)) {
+                return move;
+            }
+            cube.undoMove();
+        }
+        throw new IllegalStateException("Consecutive states of a solution differ by more than a move");
+    }
+
+    /* Returns the parameters of the query string and, for a POST, of the form-encoded body */
+    private static Map<String, String> parameters(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        addParameters(exchange.getRequestURI().getRawQuery(), params);
+        if ("POST".equals(exchange.getRequestMethod())) {
+            try (InputStream body = exchange.getRequestBody()) {
+                addParameters(new String(body.readAllBytes(), StandardCharsets.UTF_8), params);
+            }
+        }
+        return params;
+    }
+
+    private static void addParameters(String encoded, Map<String, String> params) {
+        if (encoded == null || encoded.isEmpty()) {
+            return;
+        }
+        for (String pair: encoded.trim().split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String errorJson(String message) {
+        String text = String.valueOf(message).replace("\\", "\\\\").replace("\"", "\\\"");
+        return "{\"error\":\"" + text + "\"}";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -1,66 +1,50 @@
 package puzzlesolver;
 
 import java.util.LinkedList;
-import java.util.PriorityQueue;
+import java.util.List;
 
+/* Solves a PuzzleState when constructed. Nothing is printed unless asked for:
+ * call printSolution, or pass SearchListener.printing() to follow the search */
 public class Solver {
-    /* Necessary to keep track of distance from start for A*
-    *  and to prevent infinite adding of elements to priority queue */
-    private class PSNode implements Comparable<PSNode> {
-        PuzzleState ps;
-        int distFromStart;
-        int distToSolved;
-        PSNode prev;
-
-        PSNode(PuzzleState pstate, int distFromStart, PSNode prev) {
-            ps = pstate;
-            this.distFromStart = distFromStart;
-            this.distToSolved = ps.distToSolved();
-            this.prev = prev;
-        }
-
-        /* Defines the priority of a PSNode; implements Comparable interface */
-        public int compareTo(PSNode other) {
-            int myPriority = this.distFromStart + this.distToSolved;
-            int otherPriority = other.distFromStart + other.distToSolved;
-            return myPriority - otherPriority;
-        }
-    }
     private int numMoves;
     private LinkedList<PuzzleState> solution;
+    private SearchStats stats;
 
     /* Uses the A* search algorithm to solve the given PuzzleState */
     public Solver(PuzzleState initialState) {
-        PriorityQueue<PSNode> fringe = new PriorityQueue<>();
-        solution = new LinkedList<>();
-        System.out.println("Initial state: ");
-        initialState.printState();
-        System.out.println("\nSolving...");
+        this(initialState, new AStarSearch());
+    }
 
-        PSNode startNode = new PSNode(initialState, 0, null);
-        fringe.add(startNode);
+    /* Uses the given search ENGINE to solve the given PuzzleState */
+    public Solver(PuzzleState initialState, SearchEngine engine) {
+        this(initialState, engine, SearchListener.NONE);
+    }
 
-        PSNode bestNode = fringe.poll();
-        while (!(bestNode.ps.isSolved())) {
-            for (PuzzleState adjState: bestNode.ps.adjacentStates()) {
-                PSNode toAdd = new PSNode(adjState, bestNode.distFromStart + 1, bestNode);
-                if (bestNode.prev == null || !toAdd.ps.equals(bestNode.prev.ps)) {
-                    fringe.add(toAdd);
-                }
-            }
-            bestNode = fringe.poll();
-        }
-        numMoves = bestNode.distFromStart;
-        while (bestNode != null) {
-            solution.addFirst(bestNode.ps);
-            bestNode = bestNode.prev;
-        }
-        System.out.println("Found a solution with " + numMoves + " moves!\n");
-        printSolution();
+    /* Uses the given search ENGINE to solve the given PuzzleState, reporting progress to LISTENER */
+    public Solver(PuzzleState initialState, SearchEngine engine, SearchListener listener) {
+        engine.setListener(listener);
+        solution = new LinkedList<>(engine.solve(initialState));
+        numMoves = solution.size() - 1;
+        stats = engine.stats();
+    }
+
+    public int numMoves() {
+        return numMoves;
+    }
+
+    /* Returns the states from the initial state to the solved state, both inclusive */
+    public List<PuzzleState> solution() {
+        return solution;
+    }
+
+    /* Returns the counts and timings of the search */
+    public SearchStats stats() {
+        return stats;
     }
 
     /* Prints the steps to the solved state */
     public void printSolution() {
+        System.out.println("Found a solution with " + numMoves + " moves!\n");
         for (PuzzleState ps: solution) {
             ps.printState();
         }
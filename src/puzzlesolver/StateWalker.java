@@ -0,0 +1,128 @@
+package puzzlesolver;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/* Helpers for searches that walk the tree with a single MutablePuzzleState
+ * and remember the path as a sequence of move ids */
+final class StateWalker {
+    private StateWalker() {
+    }
+
+    /* Returns a MutablePuzzleState at STATE that the caller may move freely.
+     * PuzzleStates that only offer adjacentStates are adapted, numbering
+     * their moves in the order adjacentStates lists them */
+    static MutablePuzzleState start(PuzzleState state) {
+        if (state instanceof MutablePuzzleState) {
+            return ((MutablePuzzleState) state).copy();
+        }
+        return new AdjacentStatesAdapter(state);
+    }
+
+    /* Returns the states from INITIALSTATE along the first LENGTH moves of MOVES, both inclusive */
+    static List<PuzzleState> replay(PuzzleState initialState, int[] moves, int length) {
+        List<PuzzleState> path = new ArrayList<>(length + 1);
+        path.add(initialState);
+        if (initialState instanceof MutablePuzzleState) {
+            MutablePuzzleState state = ((MutablePuzzleState) initialState).copy();
+            for (int i = 0; i < length; i += 1) {
+                state.applyMove(moves[i]);
+                path.add(state.copy());
+            }
+            return path;
+        }
+        PuzzleState state = initialState;
+        for (int i = 0; i < length; i += 1) {
+            state = nthAdjacent(state, moves[i]);
+            path.add(state);
+        }
+        return path;
+    }
+
+    /* Returns the adjacent state of STATE at position N of adjacentStates */
+    private static PuzzleState nthAdjacent(PuzzleState state, int n) {
+        Iterator<PuzzleState> adjacent = state.adjacentStates().iterator();
+        for (int i = 0; i < n; i += 1) {
+            adjacent.next();
+        }
+        return adjacent.next();
+    }
+
+    /* Walks a PuzzleState that has no move-based operations by keeping
+     * the states along the current path, together with their adjacent states */
+    private static class AdjacentStatesAdapter implements MutablePuzzleState {
+        private final List<PuzzleState> path = new ArrayList<>();
+        private final List<List<PuzzleState>> adjacent = new ArrayList<>(); // filled lazily, one list per state in PATH
+
+        AdjacentStatesAdapter(PuzzleState state) {
+            path.add(state);
+            adjacent.add(null);
+        }
+
+        private PuzzleState current() {
+            return path.get(path.size() - 1);
+        }
+
+        private List<PuzzleState> currentAdjacent() {
+            int last = path.size() - 1;
+            if (adjacent.get(last) == null) {
+                List<PuzzleState> states = new ArrayList<>();
+                for (PuzzleState adjState: current().adjacentStates()) {
+                    states.add(adjState);
+                }
+                adjacent.set(last, states);
+            }
+            return adjacent.get(last);
+        }
+
+        public int numMoves() {
+            return currentAdjacent().size();
+        }
+
+        public void applyMove(int move) {
+            path.add(currentAdjacent().get(move));
+            adjacent.add(null);
+        }
+
+        public void undoMove() {
+            if (path.size() == 1) {
+                return;
+            }
+            path.remove(path.size() - 1);
+            adjacent.remove(adjacent.size() - 1);
+        }
+
+        public MutablePuzzleState copy() {
+            return new AdjacentStatesAdapter(current());
+        }
+
+        public int distToSolved() {
+            return current().distToSolved();
+        }
+
+        @Override
+        public boolean isSolved() {
+            return current().isSolved();
+        }
+
+        public Iterable<PuzzleState> adjacentStates() {
+            return currentAdjacent();
+        }
+
+        public void printState() {
+            current().printState();
+        }
+
+        public boolean equals(PuzzleState other) {
+            if (other instanceof AdjacentStatesAdapter) {
+                other = ((AdjacentStatesAdapter) other).current();
+            }
+            return current().equals(other);
+        }
+
+        public long hash64() {
+            return current().hash64();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package puzzlesolver;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+/* Saves pattern databases to disk and maps them back in read-only, so a table is
+ * only built once per machine and every JVM reading it shares the same page cache.
+ *
+ * File layout: magic, format version, number of moves, number of entries,
+ * CRC32 of the entries, then the packed entries (see NibbleArray). */
+public class TableStore {
+    private static final int MAGIC = 0x50534442; // "PSDB"
+    /* Bump whenever the move model or a Coordinate changes, so stale files are rebuilt */
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 4 + 4 + 8;
+
+    private final File directory;
+
+    /* Stores tables in DIRECTORY, which is created when the first table is saved */
+    public TableStore(File directory) {
+        this.directory = directory;
+    }
+
+    /* The store used by CubeHeuristic, in the directory named by the
+     * puzzlesolver.tables system property ("tables" by default) */
+    public static TableStore defaultStore() {
+        return new TableStore(new File(System.getProperty("puzzlesolver.tables", "tables")));
+    }
+
+    /* Returns the database saved under NAME, building and saving it first if
+     * there is no valid file for COORDINATE and NUMMOVES */
+    public PatternDatabase loadOrBuild(String name, Coordinate coordinate, int numMoves) {
+        File file = fileFor(name);
+        if (file.exists()) {
+            try {
+                return load(file, coordinate, numMoves);
+            } catch (IOException | IllegalStateException e) {
+                System.err.println("Rebuilding " + file + ": " + e.getMessage());
+            }
+        }
+        PatternDatabase db = new ParallelPatternDatabaseBuilder().build(coordinate, numMoves);
+        try {
+            save(file, db, numMoves);
+        } catch (IOException e) {
+            System.err.println("Could not save " + file + ": " + e.getMessage());
+        }
+        return db;
+    }
+
+    /* Maps the database in FILE read-only, after checking its header and checksum */
+    public PatternDatabase load(File file, Coordinate coordinate, int numMoves) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                continue;
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IllegalStateException("not a table file");
+            }
+            int version = header.getInt();
+            int moves = header.getInt();
+            int size = header.getInt();
+            long checksum = header.getLong();
+            if (version != VERSION || moves != numMoves || size != coordinate.size()) {
+                throw new IllegalStateException("table is for a different version or move set");
+            }
+            int numBytes = NibbleArray.numBytes(size);
+            if (channel.size() != HEADER_BYTES + numBytes) {
+                throw new IllegalStateException("table is truncated");
+            }
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, numBytes);
+            if (checksum(data) != checksum) {
+                throw new IllegalStateException("checksum mismatch");
+            }
+            return new PatternDatabase(coordinate, new NibbleArray(data, size));
+        }
+    }
+
+    /* Writes DB to FILE. Writes to a temporary file first so that other
+     * processes never map a partially written table. */
+    public void save(File file, PatternDatabase db, int numMoves) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        Files.createDirectories(parent.toPath());
+        File temp = File.createTempFile(file.getName(), ".tmp", parent);
+        try {
+            NibbleArray distances = db.distances();
+            try (RandomAccessFile raf = new RandomAccessFile(temp, "rw"); FileChannel channel = raf.getChannel()) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                header.putInt(MAGIC).putInt(VERSION).putInt(numMoves).putInt(distances.size());
+                header.putLong(checksum(distances.buffer()));
+                header.flip();
+                writeFully(channel, header);
+                writeFully(channel, distances.buffer());
+                channel.force(true);
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    private File fileFor(String name) {
+        return new File(directory, name + ".pdb");
+    }
+
+    private static long checksum(ByteBuffer data) {
+        CRC32 crc = new CRC32();
+        crc.update(data.duplicate());
+        return crc.getValue();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package puzzlesolver;
+
+import java.util.Arrays;
+
+/* An open-addressing set of 64-bit state hashes (see PuzzleState.hash64), each
+ * with the smallest distance from start it has been reached at. Search engines use
+ * it to skip states they have already reached by a path at least as short.
+ * The capacity is fixed; when the probe window of a hash is full, the
+ * ReplacementPolicy decides which entry, if any, is given up. */
+public class TranspositionTable implements ClosedSet {
+    public enum ReplacementPolicy {
+        /* Always evict the entry reached furthest from the start */
+        ALWAYS,
+        /* Evict the entry reached furthest from the start only if the new entry is closer */
+        SHALLOWER,
+        /* Never evict; new entries are dropped once the window is full */
+        NEVER
+    }
+
+    public static final int DEFAULT_CAPACITY = 1 << 20;
+    private static final int MAX_PROBES = 8;
+    private static final long EMPTY = 0;
+    private static final long ZERO_KEY = 0x9E3779B97F4A7C15L; // stands in for a hash of 0
+
+    private final long[] keys;
+    private final byte[] distances;
+    private final int mask;
+    private final ReplacementPolicy policy;
+    private int size;
+
+    /* Creates a table with the default capacity that evicts far entries for closer ones */
+    public TranspositionTable() {
+        this(DEFAULT_CAPACITY, ReplacementPolicy.SHALLOWER);
+    }
+
+    /* Creates a table holding up to CAPACITY entries, rounded up to a power of two */
+    public TranspositionTable(int capacity, ReplacementPolicy policy) {
+        int slots = Integer.highestOneBit(Math.max(capacity, MAX_PROBES) - 1) << 1;
+        keys = new long[slots];
+        distances = new byte[slots];
+        mask = slots - 1;
+        this.policy = policy;
+    }
+
+    /* Records that the state with HASH was reached DISTFROMSTART moves from the start.
+     * Returns false if it had already been reached in at most that many moves. */
+    public boolean visit(long hash, int distFromStart) {
+        long key = hash == EMPTY ? ZERO_KEY : hash;
+        byte dist = (byte) Math.min(distFromStart, Byte.MAX_VALUE);
+        int start = (int) (key ^ (key >>> 32)) & mask;
+        int victim = start;
+        for (int probe = 0; probe < MAX_PROBES; probe += 1) {
+            int i = (start + probe) & mask;
+            if (keys[i] == key) {
+                if (distances[i] <= dist) {
+                    return false;
+                }
+                distances[i] = dist;
+                return true;
+            }
+            if (keys[i] == EMPTY) {
+                keys[i] = key;
+                distances[i] = dist;
+                size += 1;
+                return true;
+            }
+            if (distances[i] > distances[victim]) {
+                victim = i;
+            }
+        }
+        if (policy == ReplacementPolicy.ALWAYS
+                || (policy == ReplacementPolicy.SHALLOWER && distances[victim] > dist)) {
+            keys[victim] = key;
+            distances[victim] = dist;
+        }
+        return true;
+    }
+
+    /* Returns whether the state with HASH has been recorded */
+    public boolean contains(long hash) {
+        long key = hash == EMPTY ? ZERO_KEY : hash;
+        int start = (int) (key ^ (key >>> 32)) & mask;
+        for (int probe = 0; probe < MAX_PROBES; probe += 1) {
+            int i = (start + probe) & mask;
+            if (keys[i] == key) {
+                return true;
+            }
+            if (keys[i] == EMPTY) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /* Returns the number of entries recorded */
+    public int size() {
+        return size;
+    }
+
+    /* Returns the maximum number of entries */
+    public int capacity() {
+        return keys.length;
+    }
+
+    /* Removes every entry */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+}
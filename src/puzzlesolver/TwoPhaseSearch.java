@@ -0,0 +1,247 @@
+package puzzlesolver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static puzzlesolver.TwoPhaseTables.*;
+
+/* Solves a RubiksCube with Kociemba's two-phase algorithm. Phase one turns the
+ * cube into one that can be solved with only turns of the orange and red faces
+ * and half turns of the others, by fixing the corner twists, the edge flips and
+ * which slots hold the edges of the slice between the orange and red faces.
+ * Phase two then solves the cube using only those turns. Solutions are not
+ * guaranteed to be optimal, but are usually found within a few milliseconds.
+ * Lengths here count half turns as one move; the solution returned to Solver
+ * spells each half turn out as two quarter turns unless the cube is searched
+ * in the half-turn metric.
+ * A SearchBudget (see setBudget) is a hard limit on top of the time limit: a solve
+ * that runs out returns the shortest solution found so far, if there is one. */
+public class TwoPhaseSearch implements SearchEngine {
+    public static final int DEFAULT_TARGET_LENGTH = 22;
+    public static final long DEFAULT_TIME_LIMIT_MILLIS = 1000;
+    private static final int MAX_LENGTH = 31;
+    private static final int MAX_PHASE2_LENGTH = 18;
+    private static final int BUDGET_CHECK_INTERVAL = 256;
+
+    private final int targetLength;
+    private final long timeLimitNanos;
+
+    private final CubieCube start = new CubieCube();
+    private final CubieCube phase2Cube = new CubieCube();
+    private final int[] turns = new int[MAX_LENGTH];
+    private int[] bestTurns;
+    private long deadline;
+    private SearchListener listener = SearchListener.NONE;
+    private SearchStats stats = new SearchStats();
+    private SearchBudget budget = SearchBudget.UNLIMITED;
+
+    /* Stops at the first solution of at most DEFAULT_TARGET_LENGTH turns */
+    public TwoPhaseSearch() {
+        this(DEFAULT_TARGET_LENGTH, DEFAULT_TIME_LIMIT_MILLIS);
+    }
+
+    /* Keeps looking for shorter solutions until one has at most TARGETLENGTH turns,
+     * or until TIMELIMITMILLIS have passed and any solution has been found */
+    public TwoPhaseSearch(int targetLength, long timeLimitMillis) {
+        this.targetLength = targetLength;
+        this.timeLimitNanos = timeLimitMillis * 1_000_000;
+    }
+
+    public List<PuzzleState> solve(PuzzleState initialState) {
+        if (!(initialState instanceof RubiksCube)) {
+            throw new IllegalArgumentException("TwoPhaseSearch can only solve a RubiksCube");
+        }
+        RubiksCube current = ((RubiksCube) initialState).copy();
+        CubieCube cube = new CubieCube();
+        current.toCubieCube(cube);
+        List<PuzzleState> solution = new ArrayList<>();
+        solution.add(current);
+        for (int turn: solveTurns(cube)) {
+            int move = moveId(turn);
+            int numSteps = 1;
+            if (move >= current.metric().numMoves()) { // spelled as two quarter turns
+                move = 2 * MoveTable.faceOf(move);
+                numSteps = 2;
+            }
+            for (int i = 0; i < numSteps; i += 1) {
+                current = current.copy();
+                current.rotate(move);
+                solution.add(current);
+            }
+        }
+        return solution;
+    }
+
+    /* Returns the face turns that solve CUBE (see TwoPhaseTables for their ids) */
+    public int[] solveTurns(CubieCube cube) {
+        stats = new SearchStats();
+        try {
+            return search(cube);
+        } catch (SearchBudgetExceededException e) {
+            if (bestTurns == null) {
+                throw e;
+            }
+            stats.budgetExhausted = true;
+            return bestTurns;
+        } finally {
+            stats.updateElapsed();
+            listener.searchFinished(stats);
+        }
+    }
+
+    public SearchStats stats() {
+        return stats;
+    }
+
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    /* Limits the time of later solves, which return the shortest solution found
+     * when they run out, or throw a SearchBudgetExceededException if there is none.
+     * The search stores no states, so the limit on states never applies */
+    public void setBudget(SearchBudget budget) {
+        this.budget = budget;
+    }
+
+    /* Tries phase one lengths from the estimate up, keeping the shortest solution found */
+    private int[] search(CubieCube cube) {
+        start.set(cube);
+        bestTurns = null;
+        deadline = System.nanoTime() + timeLimitNanos;
+        int twist = cube.cornerOrientation();
+        int flip = cube.edgeOrientation();
+        int slice = cube.sliceCombination();
+        int estimate = phase1Estimate(twist, flip, slice);
+        for (int depth1 = estimate; depth1 < MAX_LENGTH; depth1 += 1) {
+            if (bestTurns != null && depth1 >= bestTurns.length) {
+                break; // phase two would have to be empty to do better
+            }
+            long iterationStart = System.nanoTime();
+            long generatedBefore = stats.nodesGenerated;
+            long expandedBefore = stats.nodesExpanded;
+            boolean done = phase1(twist, flip, slice, 0, depth1);
+            listener.iterationFinished(stats.addIteration(depth1, stats.nodesGenerated - generatedBefore,
+                    stats.nodesExpanded - expandedBefore, iterationStart));
+            if (done) {
+                break;
+            }
+        }
+        if (bestTurns == null) {
+            throw new IllegalStateException("No solution exists");
+        }
+        return bestTurns;
+    }
+
+    /* Searches for phase one sequences of exactly TOGO more turns after DEPTH turns.
+     * Returns true once the search should stop */
+    private boolean phase1(int twist, int flip, int slice, int depth, int togo) {
+        if (togo == 0) {
+            if (depth > 0 && isPhase2Turn(turns[depth - 1])) {
+                return false; // a shorter phase one reaches the same cube
+            }
+            return phase2Start(depth);
+        }
+        countExpansion();
+        for (int t = 0; t < NUM_TURNS; t += 1) {
+            if (depth > 0 && redundant(turns[depth - 1], t)) {
+                continue;
+            }
+            stats.nodesGenerated += 1;
+            int nextTwist = TWIST_MOVE[NUM_TURNS * twist + t];
+            int nextFlip = FLIP_MOVE[NUM_TURNS * flip + t];
+            int nextSlice = SLICE_MOVE[NUM_TURNS * slice + t];
+            if (phase1Estimate(nextTwist, nextFlip, nextSlice) >= togo) {
+                continue;
+            }
+            turns[depth] = t;
+            if (phase1(nextTwist, nextFlip, nextSlice, depth + 1, togo - 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* Runs phase two after the DEPTH1 phase one turns in TURNS.
+     * Returns true once the search should stop */
+    private boolean phase2Start(int depth1) {
+        phase2Cube.set(start);
+        for (int i = 0; i < depth1; i += 1) {
+            apply(phase2Cube, turns[i]);
+        }
+        int corner = phase2Cube.cornerPermutation();
+        int edge = phase2Cube.udEdgePermutation();
+        int slice = phase2Cube.slicePermutation();
+        int maxDepth2 = MAX_PHASE2_LENGTH;
+        if (bestTurns != null) {
+            maxDepth2 = Math.min(maxDepth2, bestTurns.length - 1 - depth1);
+        }
+        for (int depth2 = phase2Estimate(corner, edge, slice); depth2 <= maxDepth2; depth2 += 1) {
+            if (phase2(corner, edge, slice, depth1, depth2)) {
+                bestTurns = new int[depth1 + depth2];
+                System.arraycopy(turns, 0, bestTurns, 0, bestTurns.length);
+                break;
+            }
+        }
+        return bestTurns != null && (bestTurns.length <= targetLength || System.nanoTime() > deadline);
+    }
+
+    /* Searches for phase two sequences of exactly TOGO more turns after DEPTH turns */
+    private boolean phase2(int corner, int edge, int slice, int depth, int togo) {
+        if (togo == 0) {
+            return corner == 0 && edge == 0 && slice == 0;
+        }
+        countExpansion();
+        for (int t: PHASE2_TURNS) {
+            if (depth > 0 && redundant(turns[depth - 1], t)) {
+                continue;
+            }
+            stats.nodesGenerated += 1;
+            int nextCorner = CORNER_MOVE[NUM_TURNS * corner + t];
+            int nextEdge = UD_EDGE_MOVE[NUM_TURNS * edge + t];
+            int nextSlice = SLICE_PERMUTATION_MOVE[NUM_TURNS * slice + t];
+            if (phase2Estimate(nextCorner, nextEdge, nextSlice) >= togo) {
+                continue;
+            }
+            turns[depth] = t;
+            if (phase2(nextCorner, nextEdge, nextSlice, depth + 1, togo - 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* Counts an expanded node, checking the budget every BUDGET_CHECK_INTERVAL */
+    private void countExpansion() {
+        stats.nodesExpanded += 1;
+        if (stats.nodesExpanded % BUDGET_CHECK_INTERVAL == 0) {
+            budget.check(stats.startNanos(), 0);
+        }
+    }
+
+    private static int phase1Estimate(int twist, int flip, int slice) {
+        return Math.max(TWIST_SLICE_PRUNE[NUM_SLICES * twist + slice], FLIP_SLICE_PRUNE[NUM_SLICES * flip + slice]);
+    }
+
+    private static int phase2Estimate(int corner, int edge, int slice) {
+        return Math.max(CORNER_SLICE_PRUNE[NUM_SLICE_PERMUTATIONS * corner + slice],
+                EDGE_SLICE_PRUNE[NUM_SLICE_PERMUTATIONS * edge + slice]);
+    }
+
+    /* Returns whether turn NEXT after turn PREV can be skipped: turning the same face
+     * twice in a row, or opposite faces in the non-canonical order */
+    private static boolean redundant(int prev, int next) {
+        int prevFace = prev / 3;
+        int nextFace = next / 3;
+        return nextFace == prevFace || nextFace == (prevFace ^ 1) && nextFace < prevFace;
+    }
+
+    private static boolean isPhase2Turn(int turn) {
+        for (int t: PHASE2_TURNS) {
+            if (t == turn) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,147 @@
+package puzzlesolver;
+
+import java.util.Arrays;
+
+/* Coordinate move tables and pruning tables for TwoPhaseSearch.
+ * Moves here are face turns: turn 3 * f + p turns face f of CubeUtils.FACES
+ * clockwise (p = 0), by a half turn (p = 1) or counterclockwise (p = 2). */
+class TwoPhaseTables {
+    static final int NUM_TURNS = 18;
+    static final int NUM_TWISTS = 2187; // 3^7
+    static final int NUM_FLIPS = 2048; // 2^11
+    static final int NUM_SLICES = 495; // C(12, 4)
+    static final int NUM_PERMUTATIONS = 40320; // 8!
+    static final int NUM_SLICE_PERMUTATIONS = 24; // 4!
+
+    /* The turns that keep a cube in the subgroup phase one reduces to: any turn of
+     * the orange and red faces, half turns of the others */
+    static final int[] PHASE2_TURNS = {
+        turn("orange", 0), turn("orange", 1), turn("orange", 2),
+        turn("red", 0), turn("red", 1), turn("red", 2),
+        turn("white", 1), turn("yellow", 1), turn("green", 1), turn("blue", 1)
+    };
+
+    static final int SOLVED_SLICE = new CubieCube().sliceCombination();
+
+    /* XXX_MOVE[NUM_TURNS * c + t] is the coordinate reached from c by turn t */
+    static final int[] TWIST_MOVE = new int[NUM_TWISTS * NUM_TURNS];
+    static final int[] FLIP_MOVE = new int[NUM_FLIPS * NUM_TURNS];
+    static final int[] SLICE_MOVE = new int[NUM_SLICES * NUM_TURNS];
+    static final int[] CORNER_MOVE = new int[NUM_PERMUTATIONS * NUM_TURNS];
+    /* Only filled for PHASE2_TURNS, the only turns that keep these coordinates meaningful */
+    static final int[] UD_EDGE_MOVE = new int[NUM_PERMUTATIONS * NUM_TURNS];
+    static final int[] SLICE_PERMUTATION_MOVE = new int[NUM_SLICE_PERMUTATIONS * NUM_TURNS];
+
+    /* Exact distances for pairs of coordinates, indexed by first * (size of second) + second */
+    static final byte[] TWIST_SLICE_PRUNE;
+    static final byte[] FLIP_SLICE_PRUNE;
+    static final byte[] CORNER_SLICE_PRUNE;
+    static final byte[] EDGE_SLICE_PRUNE;
+
+    static {
+        CubieCube cube = new CubieCube();
+        for (int t = 0; t < NUM_TURNS; t += 1) {
+            for (int c = 0; c < NUM_TWISTS; c += 1) {
+                cube.reset();
+                cube.setCornerOrientation(c);
+                apply(cube, t);
+                TWIST_MOVE[NUM_TURNS * c + t] = cube.cornerOrientation();
+            }
+            for (int c = 0; c < NUM_FLIPS; c += 1) {
+                cube.reset();
+                cube.setEdgeOrientation(c);
+                apply(cube, t);
+                FLIP_MOVE[NUM_TURNS * c + t] = cube.edgeOrientation();
+            }
+            for (int c = 0; c < NUM_SLICES; c += 1) {
+                cube.reset();
+                cube.setSliceCombination(c);
+                apply(cube, t);
+                SLICE_MOVE[NUM_TURNS * c + t] = cube.sliceCombination();
+            }
+            for (int c = 0; c < NUM_PERMUTATIONS; c += 1) {
+                cube.reset();
+                cube.setCornerPermutation(c);
+                apply(cube, t);
+                CORNER_MOVE[NUM_TURNS * c + t] = cube.cornerPermutation();
+            }
+        }
+        for (int t: PHASE2_TURNS) {
+            for (int c = 0; c < NUM_PERMUTATIONS; c += 1) {
+                cube.reset();
+                cube.setUDEdgePermutation(c);
+                apply(cube, t);
+                UD_EDGE_MOVE[NUM_TURNS * c + t] = cube.udEdgePermutation();
+            }
+            for (int c = 0; c < NUM_SLICE_PERMUTATIONS; c += 1) {
+                cube.reset();
+                cube.setSlicePermutation(c);
+                apply(cube, t);
+                SLICE_PERMUTATION_MOVE[NUM_TURNS * c + t] = cube.slicePermutation();
+            }
+        }
+        int[] allTurns = new int[NUM_TURNS];
+        for (int t = 0; t < NUM_TURNS; t += 1) {
+            allTurns[t] = t;
+        }
+        TWIST_SLICE_PRUNE = buildPruning(TWIST_MOVE, NUM_TWISTS, 0, SLICE_MOVE, NUM_SLICES, SOLVED_SLICE, allTurns);
+        FLIP_SLICE_PRUNE = buildPruning(FLIP_MOVE, NUM_FLIPS, 0, SLICE_MOVE, NUM_SLICES, SOLVED_SLICE, allTurns);
+        CORNER_SLICE_PRUNE = buildPruning(CORNER_MOVE, NUM_PERMUTATIONS, 0,
+                SLICE_PERMUTATION_MOVE, NUM_SLICE_PERMUTATIONS, 0, PHASE2_TURNS);
+        EDGE_SLICE_PRUNE = buildPruning(UD_EDGE_MOVE, NUM_PERMUTATIONS, 0,
+                SLICE_PERMUTATION_MOVE, NUM_SLICE_PERMUTATIONS, 0, PHASE2_TURNS);
+    }
+
+    private TwoPhaseTables() {
+    }
+
+    /* Returns the id of the turn of FACE with power P (see the class comment) */
+    static int turn(String face, int p) {
+        return 3 * CubeUtils.faceIndex(face) + p;
+    }
+
+    /* Applies TURN to CUBE */
+    static void apply(CubieCube cube, int turn) {
+        cube.move(moveId(turn));
+    }
+
+    /* Returns the MoveTable id of TURN */
+    static int moveId(int turn) {
+        int face = turn / 3;
+        int power = turn % 3;
+        if (power == 0) {
+            return 2 * face;
+        } else if (power == 1) {
+            return MoveTable.NUM_QUARTER_TURNS + face;
+        }
+        return 2 * face + 1;
+    }
+
+    /* Breadth-first search over pairs of coordinates using the given TURNS,
+     * starting from (STARTA, STARTB) */
+    private static byte[] buildPruning(int[] moveA, int sizeA, int startA,
+                                       int[] moveB, int sizeB, int startB, int[] turns) {
+        byte[] distances = new byte[sizeA * sizeB];
+        Arrays.fill(distances, (byte) -1);
+        distances[startA * sizeB + startB] = 0;
+        int numAdded = 1;
+        for (int depth = 0; numAdded > 0; depth += 1) {
+            numAdded = 0;
+            for (int i = 0; i < distances.length; i += 1) {
+                if (distances[i] != depth) {
+                    continue;
+                }
+                int a = i / sizeB;
+                int b = i % sizeB;
+                for (int t: turns) {
+                    int next = moveA[NUM_TURNS * a + t] * sizeB + moveB[NUM_TURNS * b + t];
+                    if (distances[next] == -1) {
+                        distances[next] = (byte) (depth + 1);
+                        numAdded += 1;
+                    }
+                }
+            }
+        }
+        return distances;
+    }
+}
@@ -0,0 +1,84 @@
+package puzzlesolver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+public class BatchSolverTest {
+    /* Returns every state as already solved, without searching */
+    private static class NoSearch implements SearchEngine {
+        public List<PuzzleState> solve(PuzzleState initialState) {
+            return Collections.singletonList(initialState);
+        }
+
+        public SearchStats stats() {
+            return new SearchStats();
+        }
+
+        public void setListener(SearchListener listener) {
+        }
+
+        public void setBudget(SearchBudget budget) {
+        }
+    }
+
+    /* Yields NUMSTATES solved cubes, then throws FAILURE */
+    private static Iterator<PuzzleState> failingAfter(int numStates, RuntimeException failure) {
+        return new Iterator<PuzzleState>() {
+            private int numReturned;
+
+            public boolean hasNext() {
+                return true;
+            }
+
+            public PuzzleState next() {
+                if (numReturned == numStates) {
+                    throw failure;
+                }
+                numReturned += 1;
+                return new RubiksCube();
+            }
+        };
+    }
+
+    @Test(timeout = 10_000)
+    public void inputFailureEndsBatchAfterEarlierResults() {
+        RuntimeException failure = new RuntimeException("input broke");
+        try (BatchSolver solver = new BatchSolver(NoSearch::new, 3, 4)) {
+            Iterator<BatchSolver.Result> results = solver.solve(failingAfter(9, failure));
+            int numResults = 0;
+            try {
+                while (results.hasNext()) {
+                    results.next();
+                    numResults += 1;
+                }
+                fail("The input failure was lost");
+            } catch (IllegalStateException e) {
+                assertSame(failure, e.getCause());
+            }
+            assertEquals(9, numResults);
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void engineFactoryFailureEndsBatch() {
+        RuntimeException failure = new RuntimeException("no engine");
+        try (BatchSolver solver = new BatchSolver(() -> {
+            throw failure;
+        }, 2, 4)) {
+            Iterator<BatchSolver.Result> results = solver.solve(failingAfter(5, failure));
+            try {
+                results.hasNext();
+                fail("The engine factory failure was lost");
+            } catch (IllegalStateException e) {
+                assertSame(failure, e.getCause());
+            }
+        }
+    }
+}
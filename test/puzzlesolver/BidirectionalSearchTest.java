@@ -0,0 +1,29 @@
+package puzzlesolver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+public class BidirectionalSearchTest {
+    /* Both searches find shortest solutions, so they must agree on the length.
+     * IDA* loads the quarter-turn pattern databases, building them on the first run */
+    @Test
+    public void solutionsAreAsShortAsIDAStar() {
+        ScrambleGenerator scrambles = new ScrambleGenerator(20);
+        for (int depth = 6; depth <= 8; depth += 1) {
+            for (int i = 0; i < 2; i += 1) {
+                RubiksCube scrambled = new RubiksCube();
+                scrambles.scramble(scrambled, depth);
+                String facelets = scrambled.toFaceletString();
+
+                List<PuzzleState> expected = new IDAStarSearch().solve(RubiksCube.fromFaceletString(facelets));
+                List<PuzzleState> solution = new BidirectionalSearch().solve(RubiksCube.fromFaceletString(facelets));
+                assertEquals(facelets, expected.size(), solution.size());
+                assertTrue(((RubiksCube) solution.get(solution.size() - 1)).isSolved());
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package puzzlesolver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class CubeSymmetryTest {
+    /* The facelets of a random cube, which with a fixed seed is no cube that any
+     * symmetry but the identity maps to itself */
+    private static byte[] randomFacelets(long seed) {
+        CubieCube cube = new CubieCube();
+        new ScrambleGenerator(seed).randomState(cube);
+        byte[] facelets = new byte[54];
+        cube.getFacelets(facelets);
+        return facelets;
+    }
+
+    private static byte[] conjugate(int sym, byte[] facelets) {
+        byte[] dst = new byte[54];
+        CubeSymmetry.conjugate(sym, facelets, dst);
+        return dst;
+    }
+
+    @Test
+    public void symmetriesAreDistinct() {
+        byte[] facelets = randomFacelets(21);
+        Set<String> images = new HashSet<>();
+        int numReflections = 0;
+        for (int s = 0; s < CubeSymmetry.NUM_SYMMETRIES; s += 1) {
+            images.add(Arrays.toString(conjugate(s, facelets)));
+            numReflections += CubeSymmetry.isReflection(s) ? 1 : 0;
+        }
+        assertEquals(CubeSymmetry.NUM_SYMMETRIES, images.size());
+        assertEquals(CubeSymmetry.NUM_SYMMETRIES / 2, numReflections);
+        assertArrayEquals(facelets, conjugate(0, facelets));
+    }
+
+    @Test
+    public void symmetryThenInverseIsIdentity() {
+        byte[] facelets = randomFacelets(21);
+        for (int s = 0; s < CubeSymmetry.NUM_SYMMETRIES; s += 1) {
+            int inverse = CubeSymmetry.inverse(s);
+            assertArrayEquals(facelets, conjugate(inverse, conjugate(s, facelets)));
+            assertArrayEquals(facelets, conjugate(s, conjugate(inverse, facelets)));
+        }
+    }
+
+    @Test
+    public void symmetricCubesHaveOneRepresentative() {
+        for (int numSymmetries: new int[] {CubeSymmetry.NUM_UD_SYMMETRIES, CubeSymmetry.NUM_SYMMETRIES}) {
+            for (long seed = 0; seed < 4; seed += 1) {
+                byte[] facelets = randomFacelets(seed);
+                byte[] expected = new byte[54];
+                CubeSymmetry.canonicalize(facelets, numSymmetries, expected);
+                byte[] representative = new byte[54];
+                for (int s = 0; s < numSymmetries; s += 1) {
+                    int sym = CubeSymmetry.canonicalize(conjugate(s, facelets), numSymmetries, representative);
+                    assertArrayEquals(expected, representative);
+                    assertArrayEquals(representative, conjugate(sym, conjugate(s, facelets)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void conjugatedMoveMatchesMappedMove() {
+        byte[] facelets = randomFacelets(21);
+        byte[] moved = new byte[54];
+        byte[] expected = new byte[54];
+        for (int s = 0; s < CubeSymmetry.NUM_SYMMETRIES; s += 1) {
+            byte[] seen = conjugate(s, facelets);
+            for (int move = 0; move < MoveTable.NUM_MOVES; move += 1) {
+                MoveTable.apply(move, facelets, moved);
+                MoveTable.apply(CubeSymmetry.conjugateMove(s, move), seen, expected);
+                assertArrayEquals(expected, conjugate(s, moved));
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package puzzlesolver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class MoveTableTest {
+    /* Every facelet labelled with its own index, so a permutation shows in full */
+    private static byte[] labelled() {
+        byte[] facelets = new byte[54];
+        for (int i = 0; i < facelets.length; i += 1) {
+            facelets[i] = (byte) i;
+        }
+        return facelets;
+    }
+
+    private static byte[] apply(byte[] facelets, int... moves) {
+        byte[] result = facelets.clone();
+        for (int move: moves) {
+            MoveTable.applyInPlace(move, result);
+        }
+        return result;
+    }
+
+    @Test
+    public void halfTurnIsTwoQuarterTurns() {
+        for (int face = 0; face < 6; face += 1) {
+            int halfTurn = MoveTable.NUM_QUARTER_TURNS + face;
+            byte[] expected = apply(labelled(), 2 * face, 2 * face);
+            assertArrayEquals(expected, apply(labelled(), halfTurn));
+            assertArrayEquals(expected, apply(labelled(), 2 * face + 1, 2 * face + 1));
+            assertEquals(face, MoveTable.faceOf(halfTurn));
+        }
+    }
+
+    @Test
+    public void moveThenInverseIsIdentity() {
+        for (int move = 0; move < MoveTable.NUM_MOVES; move += 1) {
+            assertArrayEquals(labelled(), apply(labelled(), move, MoveTable.inverse(move)));
+            assertArrayEquals(labelled(), apply(labelled(), MoveTable.inverse(move), move));
+        }
+    }
+
+    @Test
+    public void applyMatchesApplyInPlace() {
+        byte[] dst = new byte[54];
+        for (int move = 0; move < MoveTable.NUM_MOVES; move += 1) {
+            MoveTable.apply(move, labelled(), dst);
+            assertArrayEquals(apply(labelled(), move), dst);
+        }
+    }
+
+    @Test
+    public void prunedSequencesReachEveryDepthTwoState() {
+        for (Metric metric: Metric.values()) {
+            assertEquals(metric.toString(), reachable(metric, false), reachable(metric, true));
+        }
+        assertEquals(1 + 12 + 114, reachable(Metric.QUARTER_TURN, true).size());
+        assertEquals(1 + 18 + 243, reachable(Metric.HALF_TURN, true).size());
+    }
+
+    /* Returns the states at most two moves from solved in METRIC, skipping the
+     * sequences MoveTable.redundant rejects if PRUNE */
+    private static Set<String> reachable(Metric metric, boolean prune) {
+        Set<String> states = new HashSet<>();
+        states.add(Arrays.toString(labelled()));
+        for (int first = 0; first < metric.numMoves(); first += 1) {
+            byte[] afterFirst = apply(labelled(), first);
+            states.add(Arrays.toString(afterFirst));
+            for (int second = 0; second < metric.numMoves(); second += 1) {
+                if (!prune || !MoveTable.redundant(metric, MoveTable.NO_MOVE, first, second)) {
+                    states.add(Arrays.toString(apply(afterFirst, second)));
+                }
+            }
+        }
+        return states;
+    }
+}
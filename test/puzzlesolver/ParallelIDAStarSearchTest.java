@@ -0,0 +1,58 @@
+package puzzlesolver;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class ParallelIDAStarSearchTest {
+    /* A position on the integer line, solved at 0, moving one step either way.
+     * distToSolved is exact, so IDA* solves it in a single iteration */
+    private static class LineState implements PuzzleState {
+        private final int position;
+
+        LineState(int position) {
+            this.position = position;
+        }
+
+        public int distToSolved() {
+            return Math.abs(position);
+        }
+
+        public Iterable<PuzzleState> adjacentStates() {
+            return Arrays.asList(new LineState(position - 1), new LineState(position + 1));
+        }
+
+        public void printState() {
+            System.out.println(position);
+        }
+
+        public boolean equals(PuzzleState other) {
+            return ((LineState) other).position == position;
+        }
+
+        public long hash64() {
+            return position * 0xC2B2AE3D27D4EB4FL;
+        }
+    }
+
+    /* The first solve leaves the states near 0 in the worker's table at short
+     * distances; a second solve from further away must not prune them */
+    @Test
+    public void secondSolveIgnoresTablesOfFirstSolve() {
+        ForkJoinPool pool = new ForkJoinPool(1); // one worker, so both solves share its table
+        try {
+            ParallelIDAStarSearch search = new ParallelIDAStarSearch(pool, 1 << 10);
+            assertEquals(6, search.solve(new LineState(5)).size());
+
+            List<PuzzleState> solution = search.solve(new LineState(10));
+            assertEquals(11, solution.size());
+            assertEquals(1, search.stats().iterations().size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
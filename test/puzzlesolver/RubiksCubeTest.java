@@ -0,0 +1,49 @@
+package puzzlesolver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class RubiksCubeTest {
+    /* The number of states at most 1, 2 and 3 moves from solved in each metric */
+    private static final int[] QUARTER_TURN_STATES = {1 + 12, 1 + 12 + 114, 1 + 12 + 114 + 1068};
+    private static final int[] HALF_TURN_STATES = {1 + 18, 1 + 18 + 243, 1 + 18 + 243 + 3240};
+
+    @Test
+    public void pruningKeepsEveryStateReachable() {
+        for (Metric metric: Metric.values()) {
+            int[] expected = metric == Metric.QUARTER_TURN ? QUARTER_TURN_STATES : HALF_TURN_STATES;
+            for (int depth = 1; depth <= 3; depth += 1) {
+                Set<String> all = new HashSet<>();
+                Set<String> pruned = new HashSet<>();
+                int numSequences = expand(new RubiksCube(metric), depth, false, all);
+                int numPrunedSequences = expand(new RubiksCube(metric), depth, true, pruned);
+                assertEquals(metric + " depth " + depth, expected[depth - 1], all.size());
+                assertEquals(metric + " depth " + depth, all, pruned);
+                assertTrue(depth == 1 || numPrunedSequences < numSequences);
+            }
+        }
+    }
+
+    /* Adds the facelets of every state at most DEPTH moves from CUBE to STATES, skipping
+     * the moves isRedundant rejects if PRUNE, and returns the number of sequences made */
+    private static int expand(RubiksCube cube, int depth, boolean prune, Set<String> states) {
+        states.add(cube.toFaceletString());
+        if (depth == 0) {
+            return 1;
+        }
+        int numSequences = 1;
+        for (int move = 0; move < cube.numMoves(); move += 1) {
+            if (!prune || !cube.isRedundant(move)) {
+                cube.applyMove(move);
+                numSequences += expand(cube, depth - 1, prune, states);
+                cube.undoMove();
+            }
+        }
+        return numSequences;
+    }
+}
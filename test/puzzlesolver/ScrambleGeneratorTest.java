@@ -0,0 +1,66 @@
+package puzzlesolver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class ScrambleGeneratorTest {
+    /* Returns whether PERM, a permutation of 0 to PERM.length - 1, is odd */
+    private static boolean isOdd(byte[] perm) {
+        boolean[] seen = new boolean[perm.length];
+        boolean odd = false;
+        for (int i = 0; i < perm.length; i += 1) {
+            assertFalse("Not a permutation: " + Arrays.toString(perm), seen[perm[i]]);
+            seen[perm[i]] = true;
+            for (int j = i + 1; j < perm.length; j += 1) {
+                odd ^= perm[j] < perm[i];
+            }
+        }
+        return odd;
+    }
+
+    private static int sum(byte[] values) {
+        int sum = 0;
+        for (byte value: values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Test
+    public void randomStatesAreSolvable() {
+        ScrambleGenerator generator = new ScrambleGenerator(22);
+        CubieCube cube = new CubieCube();
+        for (int i = 0; i < 1000; i += 1) {
+            generator.randomState(cube);
+            assertEquals(isOdd(cube.cp), isOdd(cube.ep));
+            assertEquals(0, sum(cube.co) % 3);
+            assertEquals(0, sum(cube.eo) % 2);
+        }
+        for (int i = 0; i < 100; i += 1) { // fromFaceletString rejects cubes that cannot be solved
+            RubiksCube.fromFaceletString(generator.randomState(Metric.QUARTER_TURN).toFaceletString());
+        }
+    }
+
+    @Test
+    public void seedReproducesScrambles() {
+        ScrambleGenerator first = new ScrambleGenerator(22);
+        ScrambleGenerator second = new ScrambleGenerator(22);
+        for (int i = 0; i < 10; i += 1) {
+            assertArrayEquals(first.randomMoves(Metric.HALF_TURN, 25), second.randomMoves(Metric.HALF_TURN, 25));
+
+            RubiksCube firstCube = new RubiksCube();
+            RubiksCube secondCube = new RubiksCube();
+            first.scramble(firstCube, 25);
+            second.scramble(secondCube, 25);
+            assertEquals(firstCube.toFaceletString(), secondCube.toFaceletString());
+
+            assertEquals(first.randomState(Metric.QUARTER_TURN).toFaceletString(),
+                    second.randomState(Metric.QUARTER_TURN).toFaceletString());
+        }
+    }
+}